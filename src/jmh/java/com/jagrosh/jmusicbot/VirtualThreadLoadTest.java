@@ -0,0 +1,176 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot;
+
+import com.jagrosh.jmusicbot.utils.VirtualThreads;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+
+/**
+ * Plays a thousand players at once on a thread pool set up like lavaplayer's
+ * playback pool, once with platform threads and once with virtual ones, and
+ * compares how many platform threads that takes. Each player fills a frame
+ * buffer of its own, waiting in a synchronized block while it's full as
+ * lavaplayer's do, and one sender takes a frame from every player each 20ms.
+ * The memory reported is the growth of the Java heap, which leaves out the
+ * platform threads' stacks.
+ *
+ * Before Java 24 the virtual threads stop at 256 carriers, each pinned by a
+ * waiting player, which is why the playback pool stays on platform threads
+ * until then. It takes a while and its timing depends on the machine, so it
+ * only runs with the benchmarks:
+ *
+ *     mvn -Pbenchmark test -Dtest=VirtualThreadLoadTest
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class VirtualThreadLoadTest
+{
+    private final static int PLAYERS = 1000;
+    private final static int BUFFERED_FRAMES = 3;
+    private final static int TICKS = 100;
+
+    @Test
+    public void virtualThreadsCarryAThousandPlayers() throws Exception
+    {
+        assumeTrue(VirtualThreads.isSupported());
+        Result platform = play(false);
+        Result virtual = play(true);
+
+        System.out.println("platform threads: " + platform);
+        System.out.println("virtual threads: " + virtual);
+        assertTrue("platform threads: " + platform, platform.threads >= PLAYERS);
+        assumeTrue(VirtualThreads.isPinningFixed());
+        // just the carriers, which number about one per core
+        assertTrue("virtual threads: " + virtual, virtual.threads < PLAYERS / 4);
+    }
+
+    private static Result play(boolean virtual) throws Exception
+    {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, Integer.MAX_VALUE, 10, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), r ->
+                {
+                    Thread thread = new Thread(r, "playback");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        if(virtual)
+            VirtualThreads.adopt(executor, "playback");
+        Player[] players = new Player[PLAYERS];
+        Result result = new Result();
+        System.gc();
+        int baseline = threads.getThreadCount();
+        long memory = usedMemory();
+        try
+        {
+            for(int i=0; i<PLAYERS; i++)
+            {
+                players[i] = new Player();
+                executor.execute(players[i]);
+            }
+            long next = System.nanoTime();
+            for(int tick=0; tick<TICKS; tick++)
+            {
+                next += TimeUnit.MILLISECONDS.toNanos(20);
+                long wait = next - System.nanoTime();
+                if(wait > 0)
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                for(Player player : players)
+                    player.take();
+            }
+            result.threads = threads.getThreadCount() - baseline;
+            result.memory = usedMemory() - memory;
+        }
+        finally
+        {
+            for(Player player : players)
+                if(player != null)
+                    player.stop();
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        return result;
+    }
+
+    private static long usedMemory()
+    {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static class Player implements Runnable
+    {
+        private int buffered;
+        private boolean stopped;
+
+        @Override
+        public void run()
+        {
+            synchronized(this)
+            {
+                while(!stopped)
+                {
+                    if(buffered < BUFFERED_FRAMES)
+                        buffered++;
+                    else
+                    {
+                        try
+                        {
+                            wait();
+                        }
+                        catch(InterruptedException e)
+                        {
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+
+        private synchronized void take()
+        {
+            if(buffered == 0)
+                return;
+            buffered--;
+            notifyAll();
+        }
+
+        private synchronized void stop()
+        {
+            stopped = true;
+            notifyAll();
+        }
+    }
+
+    private static class Result
+    {
+        private int threads;
+        private long memory;
+
+        @Override
+        public String toString()
+        {
+            return String.format("%d threads, %dKB heap", threads, memory / 1024);
+        }
+    }
+}
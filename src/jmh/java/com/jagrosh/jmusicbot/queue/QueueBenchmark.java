@@ -0,0 +1,175 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.queue;
+
+import com.jagrosh.jmusicbot.settings.QueueType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times the queue operations for every queue type at a range of queue sizes
+ * and requester counts. Each benchmark leaves the queue the size it found it,
+ * so the numbers hold for a queue of that size rather than a growing one.
+ *
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec}; the GC profiler is
+ * on by default, so allocation rates are reported next to the timings.
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class QueueBenchmark
+{
+    private final static int POOL_SIZE = 4096;
+    private final static int SKIP = 5;
+
+    @Param({"LINEAR", "FAIR", "WEIGHTED"})
+    public String type;
+
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    @Param({"1", "10", "500"})
+    public int requesters;
+
+    private final Random random = new Random(42);
+    private AbstractQueue<Entry> queue;
+    private Entry[] pool;
+    private int next;
+    private List<List<Entry>> byRequester;
+
+    @Setup
+    public void setUp()
+    {
+        pool = new Entry[POOL_SIZE];
+        for(int i=0; i<POOL_SIZE; i++)
+            pool[i] = new Entry(random.nextInt(requesters), (60 + random.nextInt(600)) * 1000L);
+        byRequester = new ArrayList<>();
+        for(int i=0; i<requesters; i++)
+            byRequester.add(new ArrayList<>());
+        queue = QueueType.valueOf(type).createInstance(null);
+        for(int i=0; i<size; i++)
+        {
+            Entry entry = nextEntry();
+            queue.add(entry);
+            byRequester.get((int)entry.identifier).add(entry);
+        }
+    }
+
+    /**
+     * One add and one pull, the way a track is queued and later played.
+     */
+    @Benchmark
+    public Entry addAndPull()
+    {
+        queue.add(nextEntry());
+        return queue.pull();
+    }
+
+    @Benchmark
+    public Entry moveItem()
+    {
+        return queue.moveItem(random.nextInt(size), random.nextInt(size));
+    }
+
+    @Benchmark
+    public int shuffle()
+    {
+        return queue.shuffle(random.nextInt(requesters), random);
+    }
+
+    /**
+     * Removes everything one requester queued and queues it all again as a batch.
+     */
+    @Benchmark
+    public int[] removeAllAndRequeue()
+    {
+        int requester = random.nextInt(requesters);
+        int count = queue.removeAll(requester);
+        return queue.addAll(byRequester.get(requester).subList(0, count));
+    }
+
+    /**
+     * Skips a few entries and queues as many new ones.
+     */
+    @Benchmark
+    public int skipAndRequeue()
+    {
+        int skipped = Math.min(SKIP, size);
+        queue.skip(skipped);
+        int last = 0;
+        for(int i=0; i<skipped; i++)
+            last = queue.add(nextEntry());
+        return last;
+    }
+
+    @Benchmark
+    public int snapshotIterate()
+    {
+        int count = 0;
+        for(Entry entry : queue.snapshot())
+            count++;
+        return count;
+    }
+
+    private Entry nextEntry()
+    {
+        Entry entry = pool[next];
+        next = (next + 1) % POOL_SIZE;
+        return entry;
+    }
+
+    private static final class Entry implements Queueable
+    {
+        private final long identifier;
+        private final long duration;
+
+        private Entry(long identifier, long duration)
+        {
+            this.identifier = identifier;
+            this.duration = duration;
+        }
+
+        @Override
+        public long getIdentifier()
+        {
+            return identifier;
+        }
+
+        @Override
+        public long getDuration()
+        {
+            return duration;
+        }
+    }
+}
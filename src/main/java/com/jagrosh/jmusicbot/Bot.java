@@ -152,6 +152,7 @@ public class Bot
             });
             jda.shutdown();
         }
+        players.shutdown();
         if(gui!=null)
             gui.dispose();
         System.exit(0);
@@ -40,11 +40,11 @@ public class BotConfig {
     private Path path = null;
     private String token, prefix, altprefix, helpWord, playlistsFolder, logLevel,
             successEmoji, warningEmoji, errorEmoji, loadingEmoji, searchingEmoji,
-            evalEngine, spotifyClientId, spotifyClientSecret;
-    private boolean youtubeOauth2, stayInChannel, songInGame, npImages, updatealerts, useEval, dbots;
-    private long owner, maxSeconds, aloneTimeUntilStop;
-    private int maxYTPlaylistPages;
-    private double skipratio;
+            evalEngine, spotifyClientId, spotifyClientSecret, audioSendMode;
+    private boolean youtubeOauth2, stayInChannel, songInGame, npImages, updatealerts, useEval, dbots, shareStreams, adaptiveQuality, virtualThreads;
+    private long owner, maxSeconds, aloneTimeUntilStop, frameCacheSize, resolutionStoreSize;
+    private int maxYTPlaylistPages, frameBufferMemory, replayBufferMemory, resolutionCacheSize, searchCacheSize, playlistLoadParallelism;
+    private double skipratio, adaptiveQualityCpu;
     private OnlineStatus status;
     private Activity game;
     private Config aliases, transforms;
@@ -92,6 +92,18 @@ public class BotConfig {
             maxSeconds = config.getLong("maxtime");
             maxYTPlaylistPages = config.getInt("maxytplaylistpages");
             aloneTimeUntilStop = config.getLong("alonetimeuntilstop");
+            frameBufferMemory = config.getInt("framebuffermemory");
+            shareStreams = config.getBoolean("sharestreams");
+            frameCacheSize = config.getLong("framecachesize");
+            replayBufferMemory = config.getInt("replaybuffermemory");
+            adaptiveQuality = config.getBoolean("adaptivequality");
+            adaptiveQualityCpu = config.getDouble("adaptivequalitycpu");
+            audioSendMode = config.getString("audiosend");
+            virtualThreads = config.getBoolean("virtualthreads");
+            resolutionCacheSize = config.getInt("resolutioncachesize");
+            searchCacheSize = config.getInt("searchcachesize");
+            resolutionStoreSize = config.getLong("resolutionstoresize");
+            playlistLoadParallelism = config.getInt("playlistloadparallelism");
             playlistsFolder = config.getString("playlistsfolder");
             aliases = config.getConfig("aliases");
             transforms = config.getConfig("transforms");
@@ -275,6 +287,10 @@ public class BotConfig {
         return playlistsFolder;
     }
 
+    public int getPlaylistLoadParallelism() {
+        return playlistLoadParallelism;
+    }
+
     public boolean getDBots() {
         return dbots;
     }
@@ -315,6 +331,50 @@ public class BotConfig {
         return aloneTimeUntilStop;
     }
 
+    public int getFrameBufferMemory() {
+        return frameBufferMemory;
+    }
+
+    public boolean useSharedStreams() {
+        return shareStreams;
+    }
+
+    public long getFrameCacheSize() {
+        return frameCacheSize;
+    }
+
+    public int getReplayBufferMemory() {
+        return replayBufferMemory;
+    }
+
+    public boolean useAdaptiveQuality() {
+        return adaptiveQuality;
+    }
+
+    public double getAdaptiveQualityCpu() {
+        return adaptiveQualityCpu;
+    }
+
+    public String getAudioSendMode() {
+        return audioSendMode;
+    }
+
+    public boolean useVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public int getResolutionCacheSize() {
+        return resolutionCacheSize;
+    }
+
+    public int getSearchCacheSize() {
+        return searchCacheSize;
+    }
+
+    public long getResolutionStoreSize() {
+        return resolutionStoreSize;
+    }
+
     public boolean isTooLong(AudioTrack track) {
         if (maxSeconds <= 0)
             return false;
@@ -19,6 +19,9 @@ import com.jagrosh.jdautilities.command.CommandClient;
 import com.jagrosh.jdautilities.command.CommandClientBuilder;
 import com.jagrosh.jdautilities.commons.waiter.EventWaiter;
 import com.jagrosh.jdautilities.examples.command.*;
+import com.jagrosh.jmusicbot.audio.LowJitterSendFactory;
+import com.jagrosh.jmusicbot.audio.PacketTimings;
+import com.jagrosh.jmusicbot.audio.TimedSendFactory;
 import com.jagrosh.jmusicbot.commands.admin.*;
 import com.jagrosh.jmusicbot.commands.dj.*;
 import com.jagrosh.jmusicbot.commands.general.*;
@@ -32,6 +35,8 @@ import java.awt.Color;
 import java.util.Arrays;
 import javax.security.auth.login.LoginException;
 import net.dv8tion.jda.api.*;
+import net.dv8tion.jda.api.audio.factory.DefaultSendFactory;
+import net.dv8tion.jda.api.audio.factory.IAudioSendFactory;
 import net.dv8tion.jda.api.entities.Activity;
 import net.dv8tion.jda.api.requests.GatewayIntent;
 import net.dv8tion.jda.api.utils.cache.CacheFlag;
@@ -119,6 +124,7 @@ public class JMusicBot {
                                     : OnlineStatus.DO_NOT_DISTURB)
                     .addEventListeners(client, waiter, new Listener(bot), new SlashCommandListener(client, bot))
                     .setBulkDeleteSplittingEnabled(true)
+                    .setAudioSendFactory(createAudioSendFactory(config, bot))
                     .build();
             bot.setJDA(jda);
 
@@ -159,6 +165,15 @@ public class JMusicBot {
         }
     }
 
+    private static IAudioSendFactory createAudioSendFactory(BotConfig config, Bot bot) {
+        PacketTimings timings = bot.getPlayerManager().getPacketTimings();
+        if ("lowjitter".equalsIgnoreCase(config.getAudioSendMode())) {
+            LOG.info("Sending audio with the low-jitter send system");
+            return new LowJitterSendFactory(timings);
+        }
+        return new TimedSendFactory(new DefaultSendFactory(), timings);
+    }
+
     private static CommandClient createCommandClient(BotConfig config, SettingsManager settings, Bot bot) {
         // instantiate about command
         AboutCommand aboutCommand = new AboutCommand(Color.BLUE.brighter(),
@@ -181,6 +196,7 @@ public class JMusicBot {
 
                 .addCommands(aboutCommand,
                         new PingCommand(),
+                        new DiagnosticsCmd(bot),
                         new SettingsCmd(bot),
 
                         new LyricsCmd(bot),
@@ -205,6 +221,7 @@ public class JMusicBot {
                         new StopCmd(bot),
                         new VolumeCmd(bot),
 
+                        new DuplicatesCmd(bot),
                         new PrefixCmd(bot),
                         new QueueTypeCmd(bot),
                         new SetdjCmd(bot),
@@ -20,6 +20,9 @@ import com.jagrosh.jdautilities.command.CommandClient;
 import com.jagrosh.jmusicbot.audio.AudioHandler;
 import com.jagrosh.jmusicbot.audio.QueuedTrack;
 import com.jagrosh.jmusicbot.audio.RequestMetadata;
+import com.jagrosh.jmusicbot.queue.AbstractQueue;
+import com.jagrosh.jmusicbot.queue.QueueSnapshot;
+import com.jagrosh.jmusicbot.utils.TimeUtil;
 import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
 import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
 import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
@@ -29,6 +32,7 @@ import net.dv8tion.jda.api.hooks.ListenerAdapter;
 
 import java.lang.reflect.Field;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Listener to handle slash command interactions by routing them to existing
@@ -194,7 +198,8 @@ public class SlashCommandListener extends ListenerAdapter {
                 return;
             }
 
-            if (handler.getQueue().isEmpty()) {
+            QueueSnapshot<QueuedTrack> snapshot = handler.getQueue().snapshot();
+            if (snapshot.isEmpty()) {
                 AudioTrack current = handler.getPlayer().getPlayingTrack();
                 if (current == null) {
                     event.getHook().editOriginal("🎵 The queue is currently empty and nothing is playing!").queue();
@@ -205,20 +210,32 @@ public class SlashCommandListener extends ListenerAdapter {
                 return;
             }
 
-            StringBuilder queueBuilder = new StringBuilder("🎵 **Current Queue:**\n");
+            AbstractQueue<QueuedTrack> queue = handler.getQueue();
+            StringBuilder queueBuilder = new StringBuilder("🎵 **Current Queue:** ")
+                    .append(snapshot.size()).append(" entries | `")
+                    .append(TimeUtil.formatTime(snapshot.getDuration(), snapshot.getLiveCount())).append("`\n");
+            long user = event.getUser().getIdLong();
+            long next = handler.getTimeUntilNext(user);
+            if (next >= 0) {
+                queueBuilder.append("You have ").append(queue.count(user)).append(" queued (`")
+                        .append(TimeUtil.formatTime(queue.getDuration(user), queue.getLiveCount(user)))
+                        .append("`), your next track plays in `")
+                        .append(TimeUtil.formatWait(next)).append("`\n");
+            }
             AudioTrack current = handler.getPlayer().getPlayingTrack();
             if (current != null) {
                 queueBuilder.append("**Now Playing:** ").append(current.getInfo().title).append("\n\n");
             }
 
-            for (int i = 0; i < Math.min(10, handler.getQueue().size()); i++) {
-                QueuedTrack track = handler.getQueue().get(i);
+            for (int i = 0; i < Math.min(10, snapshot.size()); i++) {
+                QueuedTrack track = snapshot.get(i);
                 queueBuilder.append("`").append(i + 1).append(".` **")
-                        .append(track.getTrack().getInfo().title).append("**\n");
+                        .append(track.getTrack().getInfo().title).append("** | in `")
+                        .append(TimeUtil.formatWait(handler.getTimeUntil(snapshot, i))).append("`\n");
             }
 
-            if (handler.getQueue().size() > 10) {
-                queueBuilder.append("\n... and ").append(handler.getQueue().size() - 10).append(" more tracks");
+            if (snapshot.size() > 10) {
+                queueBuilder.append("\n... and ").append(snapshot.size() - 10).append(" more tracks");
             }
 
             event.getHook().editOriginal(queueBuilder.toString()).queue();
@@ -357,7 +374,10 @@ public class SlashCommandListener extends ListenerAdapter {
 
                 RequestMetadata metadata = new RequestMetadata(event.getUser(),
                         new RequestMetadata.RequestInfo(query, track.getInfo().uri));
-                handler.addTrack(new QueuedTrack(track, metadata));
+                if (handler.addTrack(new QueuedTrack(track, metadata)) == AudioHandler.DUPLICATE) {
+                    event.getHook().editOriginal("⚠️ **Already in the queue:** " + track.getInfo().title).queue();
+                    return;
+                }
 
                 event.getHook().editOriginal("✅ **Added to queue:** " + track.getInfo().title).queue();
 
@@ -390,20 +410,21 @@ public class SlashCommandListener extends ListenerAdapter {
                 if (playlist.isSearchResult()) {
                     // For search results, just add the first track
                     AudioTrack track = playlist.getTracks().get(0);
-                    handler.addTrack(new QueuedTrack(track, metadata));
-                    event.getHook().editOriginal("✅ **Added to queue:** " + track.getInfo().title).queue();
+                    if (handler.addTrack(new QueuedTrack(track, metadata)) == AudioHandler.DUPLICATE)
+                        event.getHook().editOriginal("⚠️ **Already in the queue:** " + track.getInfo().title).queue();
+                    else
+                        event.getHook().editOriginal("✅ **Added to queue:** " + track.getInfo().title).queue();
                 } else {
                     // For actual playlists, add all tracks
-                    int added = 0;
-                    for (AudioTrack track : playlist.getTracks()) {
-                        handler.addTrack(new QueuedTrack(track, metadata));
-                        added++;
-                        if (added >= 50)
-                            break; // Limit to 50 tracks
-                    }
+                    List<QueuedTrack> tracks = playlist.getTracks().stream()
+                            .limit(50) // Limit to 50 tracks
+                            .map(track -> new QueuedTrack(track, metadata))
+                            .collect(Collectors.toList());
+                    int duplicates = AudioHandler.countDuplicates(handler.addTracks(tracks));
+                    int added = tracks.size() - duplicates;
 
                     event.getHook().editOriginal("✅ **Added " + added + " tracks to queue** from playlist: " +
-                            playlist.getName()).queue();
+                            playlist.getName() + (duplicates > 0 ? "\n⚠️ Skipped " + duplicates + " tracks that were already in the queue." : "")).queue();
                 }
 
             } catch (Exception e) {
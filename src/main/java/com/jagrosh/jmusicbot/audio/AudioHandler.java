@@ -15,8 +15,10 @@
  */
 package com.jagrosh.jmusicbot.audio;
 
+import com.jagrosh.jmusicbot.playlist.OrderedLoader;
 import com.jagrosh.jmusicbot.playlist.PlaylistLoader.Playlist;
 import com.jagrosh.jmusicbot.queue.AbstractQueue;
+import com.jagrosh.jmusicbot.queue.QueueSnapshot;
 import com.jagrosh.jmusicbot.settings.QueueType;
 import com.jagrosh.jmusicbot.utils.TimeUtil;
 import com.jagrosh.jmusicbot.settings.RepeatMode;
@@ -25,15 +27,20 @@ import com.sedmelluq.discord.lavaplayer.player.event.AudioEventAdapter;
 import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrackEndReason;
-import com.sedmelluq.discord.lavaplayer.track.playback.AudioFrame;
+import com.sedmelluq.discord.lavaplayer.format.StandardAudioDataFormats;
+import com.sedmelluq.discord.lavaplayer.source.local.LocalAudioSourceManager;
+import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import com.jagrosh.jmusicbot.settings.Settings;
 import com.jagrosh.jmusicbot.utils.FormatUtil;
 import com.sedmelluq.discord.lavaplayer.source.youtube.YoutubeAudioTrack;
 import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.MessageBuilder;
@@ -52,23 +59,69 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
     public final static String PLAY_EMOJI  = "\u25B6"; // ▶
     public final static String PAUSE_EMOJI = "\u23F8"; // ⏸
     public final static String STOP_EMOJI  = "\u23F9"; // ⏹
+    
+    // returned in place of a queue position for a track that was skipped
+    // because the guild doesn't allow duplicates and it was already queued
+    public final static int DUPLICATE = -2;
+    
+    // a guild missing more than this share of its frames gets a deeper buffer
+    private final static double UNDERRUN_RATIO = 0.01;
+    private final static int MAX_BUFFER_SCALE = 4;
+    
+    // how long before the current track ends to start loading the next one
+    private final static long PREFETCH_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    
+    // longer tracks aren't worth the memory it takes to record them
+    private final static long MAX_CACHED_MILLIS = TimeUnit.MINUTES.toMillis(20);
+    
+    // the most of the current track each guild keeps in memory for replays
+    private final static long REPLAY_BYTES = 16 * 1024 * 1024;
+    
+    // how many autoplaylist entries are looked up ahead of the one playing
+    private final static int DEFAULT_WINDOW = 5;
 
 
+    // autoplaylist tracks found ahead of playback, and the one being started;
+    // both are guarded by the queue, whose lock is never held while playing,
+    // since the player calls back into this handler under its own lock
     private final List<AudioTrack> defaultQueue = new LinkedList<>();
+    private AudioTrack defaultStarting;
+    private volatile Playlist defaultPlaylist;
+    private volatile OrderedLoader defaultLoader;
     private final Set<String> votes = new HashSet<>();
     
     private final PlayerManager manager;
-    private final AudioPlayer audioPlayer;
+    private volatile AudioPlayer audioPlayer;
     private final long guildId;
     
-    private AudioFrame lastFrame;
-    private AbstractQueue<QueuedTrack> queue;
+    // the head of the queue is started early on a second, paused player, so
+    // it is already connected and buffered when the current track ends; the
+    // two players trade places when it does
+    private final Object prefetchLock = new Object();
+    private AudioPlayer standby;
+    private QueuedTrack prefetched;
+    private AudioTrack prefetchedTrack;
+    private ScheduledFuture<?> prefetchTask;
+    private volatile long transitionStart;
+    private volatile boolean transitionPrefetched;
+    
+    // the player copies each frame into this buffer, so sending one allocates nothing
+    private final ByteBuffer frameBuffer = ByteBuffer.allocate(StandardAudioDataFormats.DISCORD_OPUS.maximumChunkSize());
+    private final MutableAudioFrame frame = new MutableAudioFrame();
+    private final SendStats sendStats = new SendStats();
+    private final FrameRecorder recorder;
+    private final ReplayBuffer replay;
+    private int bufferScale = 1;
+    private volatile AbstractQueue<QueuedTrack> queue;
 
     protected AudioHandler(PlayerManager manager, Guild guild, AudioPlayer player)
     {
         this.manager = manager;
         this.audioPlayer = player;
         this.guildId = guild.getIdLong();
+        this.frame.setBuffer(frameBuffer);
+        this.replay = new ReplayBuffer(manager.getReplayPool(), REPLAY_BYTES);
+        this.recorder = new FrameRecorder(manager.getReplayPool(), (int) (MAX_CACHED_MILLIS / FrameSegment.FRAME_MILLIS));
 
         this.setQueueType(manager.getBot().getSettingsManager().getSettings(guildId).getQueueType());
     }
@@ -82,12 +135,13 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
     {
         if(audioPlayer.getPlayingTrack()==null)
         {
-            audioPlayer.playTrack(qtrack.getTrack());
+            play(qtrack.getTrack());
             return -1;
         }
         else
         {
             queue.addAt(0, qtrack);
+            prefetchIfDue();
             return 0;
         }
     }
@@ -96,11 +150,55 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
     {
         if(audioPlayer.getPlayingTrack()==null)
         {
-            audioPlayer.playTrack(qtrack.getTrack());
+            play(qtrack.getTrack());
             return -1;
         }
-        else
-            return queue.add(qtrack);
+        int pos = skipDuplicates() ? queue.addIfAbsent(qtrack) : queue.add(qtrack);
+        prefetchIfDue();
+        return pos < 0 ? DUPLICATE : pos;
+    }
+    
+    /**
+     * Queues several tracks at once, starting the first one if nothing is playing.
+     * 
+     * @return the queue position of each track, -1 for one that started playing,
+     *         or {@link #DUPLICATE} for one that was skipped as a duplicate
+     */
+    public int[] addTracks(List<QueuedTrack> qtracks)
+    {
+        int[] positions = new int[qtracks.size()];
+        if(qtracks.isEmpty())
+            return positions;
+        int first = 0;
+        if(audioPlayer.getPlayingTrack()==null)
+        {
+            play(qtracks.get(0).getTrack());
+            positions[first++] = -1;
+        }
+        List<QueuedTrack> rest = qtracks.subList(first, qtracks.size());
+        int[] queued = skipDuplicates() ? queue.addAllAbsent(rest) : queue.addAll(rest);
+        prefetchIfDue();
+        for(int i=0; i<queued.length; i++)
+            positions[first + i] = queued[i] < 0 ? DUPLICATE : queued[i];
+        return positions;
+    }
+    
+    /**
+     * @param positions the positions returned by {@link #addTracks(List)}
+     * @return how many of the tracks were skipped as duplicates
+     */
+    public static int countDuplicates(int[] positions)
+    {
+        int count = 0;
+        for(int pos : positions)
+            if(pos == DUPLICATE)
+                count++;
+        return count;
+    }
+    
+    private boolean skipDuplicates()
+    {
+        return manager.getBot().getSettingsManager().getSettings(guildId).isSkipDuplicates();
     }
     
     public AbstractQueue<QueuedTrack> getQueue()
@@ -108,11 +206,247 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
         return queue;
     }
     
+    /**
+     * Estimates how long until a queue position starts playing, counting what
+     * is left of the current track.
+     * 
+     * @param snapshot the copy of the queue the position refers to
+     * @return the wait in milliseconds, or Long.MAX_VALUE if a live stream is
+     *         ahead of the position, since then there is no telling
+     */
+    public long getTimeUntil(QueueSnapshot<QueuedTrack> snapshot, int index)
+    {
+        return afterCurrentTrack(snapshot.timeUntil(index));
+    }
+    
+    /**
+     * Estimates how long until a user's next queued track starts playing.
+     * 
+     * @return the wait in milliseconds, Long.MAX_VALUE if a live stream is
+     *         ahead of it, or -1 if the user has nothing queued
+     */
+    public long getTimeUntilNext(long userId)
+    {
+        long ahead = queue.timeUntilFirst(userId);
+        return ahead < 0 ? -1 : afterCurrentTrack(ahead);
+    }
+    
+    // starts a track, joining another guild's broadcast if it's a live stream
+    // or from the frame cache if it has been played before, with a frame
+    // buffer sized for its source, deepened while this guild has been
+    // underrunning and brought back once it stops
+    private void play(AudioTrack track)
+    {
+        if(track.getInfo().isStream && audioPlayer.getVolume() == 100 && manager.getBot().getConfig().useSharedStreams())
+            track = manager.getStreamBroadcaster().share(track);
+        else
+            track = fromCache(track);
+        sizeFrameBuffer(audioPlayer, track);
+        audioPlayer.playTrack(track);
+    }
+    
+    // sets the track's frame buffer on the player it's about to start on
+    private void sizeFrameBuffer(AudioPlayer player, AudioTrack track)
+    {
+        SendStats.Summary stats = sendStats.getSummary();
+        if(stats.getUnderrunRatio() > UNDERRUN_RATIO)
+            bufferScale = Math.min(bufferScale * 2, MAX_BUFFER_SCALE);
+        else if(stats.getUnderruns() == 0)
+            bufferScale = Math.max(bufferScale / 2, 1);
+        int duration = FrameBufferBudget.preferredDuration(track) * bufferScale;
+        FrameBufferBudget budget = manager.getFrameBufferBudget();
+        player.setFrameBufferDuration(player == audioPlayer ? budget.reserve(guildId, duration) : budget.reserveStandby(guildId, duration));
+    }
+    
+    // plays the next track from the queue, switching to the standby player if
+    // it already has this track loaded
+    private void playNext(QueuedTrack qtrack)
+    {
+        synchronized(prefetchLock)
+        {
+            transitionStart = System.nanoTime();
+            if(qtrack == prefetched && standby.getPlayingTrack() == prefetchedTrack)
+            {
+                AudioPlayer previous = audioPlayer;
+                standby.setVolume(previous.getVolume());
+                standby.setPaused(previous.isPaused());
+                audioPlayer = standby;
+                standby = previous;
+                prefetched = null;
+                prefetchedTrack = null;
+                manager.getFrameBufferBudget().promoteStandby(guildId);
+                transitionPrefetched = true;
+                onTrackStart(audioPlayer, audioPlayer.getPlayingTrack());
+                return;
+            }
+            discardPrefetch();
+            transitionPrefetched = false;
+        }
+        play(qtrack.getTrack());
+    }
+    
+    private void schedulePrefetch(AudioTrack current, long delay)
+    {
+        synchronized(prefetchLock)
+        {
+            if(prefetchTask != null)
+                prefetchTask.cancel(false);
+            prefetchTask = manager.getBot().getThreadpool().schedule(() -> prefetch(current), Math.max(0, delay), TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    // a prefetch that found the queue empty isn't scheduled again, so a track
+    // queued once the current one is nearly over has to start it itself
+    private void prefetchIfDue()
+    {
+        AudioTrack current = audioPlayer.getPlayingTrack();
+        if(current != null && current.getDuration() != Long.MAX_VALUE
+                && current.getDuration() - current.getPosition() <= PREFETCH_MILLIS)
+            schedulePrefetch(current, 0);
+    }
+    
+    private void prefetch(AudioTrack current)
+    {
+        synchronized(prefetchLock)
+        {
+            // one copy of the queue, so a clear or skip in between can't empty it under us
+            QueueSnapshot<QueuedTrack> snapshot = queue.snapshot();
+            if(audioPlayer.getPlayingTrack() != current || snapshot.size() == 0)
+                return;
+            // repeating one track puts it back in front of whatever is queued
+            if(manager.getBot().getSettingsManager().getSettings(guildId).getRepeatMode() == RepeatMode.SINGLE)
+                return;
+            // the track may have been seeked back since this was scheduled
+            long remaining = current.getDuration() - current.getPosition();
+            if(remaining > PREFETCH_MILLIS + 1000)
+            {
+                schedulePrefetch(current, remaining - PREFETCH_MILLIS);
+                return;
+            }
+            QueuedTrack next = snapshot.get(0);
+            if(next == prefetched)
+                return;
+            discardPrefetch();
+            if(next.getTrack().getInfo().isStream)
+                return;
+            if(standby == null)
+            {
+                standby = manager.createPlayer();
+                standby.addListener(this);
+            }
+            // the queued track itself is kept unplayed, so it can still be
+            // played cold if this one is thrown away
+            AudioTrack track = next.getTrack().makeClone();
+            if(next.getTrack().getPosition() > 0)
+                track.setPosition(next.getTrack().getPosition());
+            track = fromCache(track);
+            standby.setPaused(true);
+            sizeFrameBuffer(standby, track);
+            standby.playTrack(track);
+            prefetched = next;
+            prefetchedTrack = track;
+        }
+    }
+    
+    // whether a track may be played from, and recorded into, the frame cache;
+    // cached frames are at the default volume, and local files are as cheap
+    // to play as the cache would be
+    private boolean isCacheable(AudioTrack track)
+    {
+        FrameCache cache = manager.getFrameCache();
+        return cache != null && cache.isEnabled() && !track.getInfo().isStream
+                && track.getDuration() <= MAX_CACHED_MILLIS && audioPlayer.getVolume() == 100
+                && !(track.getSourceManager() instanceof LocalAudioSourceManager);
+    }
+    
+    // a track started while the quality governor has lowered the quality
+    // isn't worth keeping, or it would be played at that quality from then on
+    private boolean isFullQuality()
+    {
+        QualityGovernor governor = manager.getQualityGovernor();
+        return governor == null || governor.getLevel() == QualityGovernor.Level.HIGH;
+    }
+    
+    private AudioTrack fromCache(AudioTrack track)
+    {
+        if(track instanceof CachedAudioTrack || track instanceof ReplayAudioTrack || !isCacheable(track))
+            return track;
+        Path path = manager.getFrameCache().lookup(CachedAudioTrack.keyOf(track));
+        if(path == null)
+            return track;
+        AudioTrack cached = new CachedAudioTrack(manager.getFrameCache(), track, path);
+        cached.setUserData(track.getUserData());
+        if(track.getPosition() > 0)
+            cached.setPosition(track.getPosition());
+        return cached;
+    }
+    
+    /**
+     * Seeks the current track, playing it from memory if it's being seeked
+     * back to a part that was sent recently.
+     */
+    public void seek(long position)
+    {
+        AudioTrack current = audioPlayer.getPlayingTrack();
+        if(current == null)
+            return;
+        if(position < current.getPosition() && !(current instanceof ReplayAudioTrack)
+                && !(current instanceof CachedAudioTrack) && canReplay() && replay.contains(position))
+        {
+            AudioTrack replayed = new ReplayAudioTrack(replay, current);
+            replayed.setUserData(current.getUserData());
+            replayed.setPosition(position);
+            audioPlayer.startTrack(replayed, false);
+        }
+        else
+            current.setPosition(position);
+    }
+    
+    // replayed frames are at the default volume
+    private boolean canReplay()
+    {
+        return audioPlayer.getVolume() == 100;
+    }
+    
+    private void discardPrefetch()
+    {
+        if(prefetched == null)
+            return;
+        prefetched = null;
+        prefetchedTrack = null;
+        standby.stopTrack();
+        manager.getFrameBufferBudget().releaseStandby(guildId);
+    }
+    
+    private long afterCurrentTrack(long ahead)
+    {
+        AudioTrack current = audioPlayer.getPlayingTrack();
+        if(current == null || ahead == Long.MAX_VALUE)
+            return ahead;
+        if(current.getDuration() == Long.MAX_VALUE)
+            return Long.MAX_VALUE;
+        return ahead + Math.max(0, current.getDuration() - current.getPosition());
+    }
+    
     public void stopAndClear()
     {
         queue.clear();
-        defaultQueue.clear();
+        synchronized(defaultQueue)
+        {
+            defaultQueue.clear();
+        }
+        defaultPlaylist = null;
+        defaultLoader = null;
+        synchronized(prefetchLock)
+        {
+            if(prefetchTask != null)
+                prefetchTask.cancel(false);
+            discardPrefetch();
+        }
+        recorder.cancel();
         audioPlayer.stopTrack();
+        replay.release();
+        manager.getFrameBufferBudget().release(guildId);
         //current = null;
     }
     
@@ -131,6 +465,11 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
         return audioPlayer;
     }
     
+    public SendStats getSendStats()
+    {
+        return sendStats;
+    }
+    
     public RequestMetadata getRequestMetadata()
     {
         if(audioPlayer.getPlayingTrack() == null)
@@ -141,11 +480,29 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
     
     public boolean playFromDefault()
     {
-        if(!defaultQueue.isEmpty())
+        Playlist current = defaultPlaylist;
+        OrderedLoader loader = defaultLoader;
+        AudioTrack next;
+        int queued;
+        synchronized(defaultQueue)
+        {
+            // another thread is already starting the next one
+            if(defaultStarting != null)
+                return true;
+            next = defaultStarting = defaultQueue.isEmpty() ? null : defaultQueue.remove(0);
+            queued = defaultQueue.size();
+        }
+        if(next != null)
         {
-            audioPlayer.playTrack(defaultQueue.remove(0));
+            startDefault(next);
+            // only top the lookahead up while it's short, so it can't grow past the window
+            if(loader != null && queued < DEFAULT_WINDOW)
+                loader.request(1);
             return true;
         }
+        // the next track is still being looked up, and is played once it's found
+        if(current != null && loader != null && !loader.isFinished() && !current.isChanged())
+            return true;
         Settings settings = manager.getBot().getSettingsManager().getSettings(guildId);
         if(settings==null || settings.getDefaultPlaylist()==null)
             return false;
@@ -153,29 +510,99 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
         Playlist pl = manager.getBot().getPlaylistLoader().getPlaylist(settings.getDefaultPlaylist());
         if(pl==null || pl.getItems().isEmpty())
             return false;
-        pl.loadTracks(manager, (at) -> 
+        // entries are only looked up a few ahead of playback, so a huge
+        // autoplaylist doesn't have to be loaded all at once
+        boolean[] found = {false};
+        defaultPlaylist = pl;
+        OrderedLoader stream = pl.streamTracks(manager, (at) -> 
         {
-            if(audioPlayer.getPlayingTrack()==null)
-                audioPlayer.playTrack(at);
-            else
+            if(defaultPlaylist != pl)
+                return;
+            found[0] = true;
+            AudioTrack next = null;
+            int queued;
+            synchronized(defaultQueue)
+            {
                 defaultQueue.add(at);
+                // nothing is playing or being started, so the oldest one starts now
+                if(audioPlayer.getPlayingTrack()==null && defaultStarting==null)
+                    next = defaultStarting = defaultQueue.remove(0);
+                queued = defaultQueue.size();
+            }
+            if(next != null)
+            {
+                startDefault(next);
+                OrderedLoader more = defaultLoader;
+                if(more != null && queued < DEFAULT_WINDOW)
+                    more.request(1);
+            }
         }, () -> 
         {
-            if(pl.getTracks().isEmpty() && !manager.getBot().getConfig().getStay())
-                manager.getBot().closeAudioConnection(guildId);
+            if(defaultPlaylist != pl)
+                return;
+            if(!found[0])
+            {
+                if(!manager.getBot().getConfig().getStay())
+                    manager.getBot().closeAudioConnection(guildId);
+            }
+            // the last entries found nothing to play, so start over
+            else if(audioPlayer.getPlayingTrack()==null && !hasDefaultTrack())
+                playFromDefault();
         });
+        defaultLoader = stream;
+        stream.request(DEFAULT_WINDOW);
         return true;
     }
     
+    // plays the track just taken from the default queue, outside its lock
+    private void startDefault(AudioTrack track)
+    {
+        try
+        {
+            play(track);
+        }
+        finally
+        {
+            synchronized(defaultQueue)
+            {
+                defaultStarting = null;
+            }
+        }
+    }
+    
+    // whether a found autoplaylist track is waiting or being started
+    private boolean hasDefaultTrack()
+    {
+        synchronized(defaultQueue)
+        {
+            return defaultStarting != null || !defaultQueue.isEmpty();
+        }
+    }
+    
     // Audio Events
     @Override
     public void onTrackEnd(AudioPlayer player, AudioTrack track, AudioTrackEndReason endReason) 
     {
+        // the standby player's tracks only count once it has been switched to
+        if(player != audioPlayer)
+            return;
+        // only a seek replaces a track, and the new one carries on from it
+        if(endReason == AudioTrackEndReason.REPLACED)
+            return;
+        // a track played all the way through gets its frames cached
+        String key = recorder.getKey();
+        FrameRecorder.Recording recording = endReason == AudioTrackEndReason.FINISHED ? recorder.finish(track.getDuration()) : null;
+        if(recording != null)
+            manager.getFrameCache().store(key, recording);
+        recorder.cancel();
         RepeatMode repeatMode = manager.getBot().getSettingsManager().getSettings(guildId).getRepeatMode();
         // if the track ended normally, and we're in repeat mode, re-add it to the queue
         if(endReason==AudioTrackEndReason.FINISHED && repeatMode != RepeatMode.OFF)
         {
-            QueuedTrack clone = new QueuedTrack(track.makeClone(), track.getUserData(RequestMetadata.class));
+            // repeating one track replays it from memory if it all fits
+            AudioTrack again = repeatMode == RepeatMode.SINGLE && canReplay() && replay.holdsWhole(track.getDuration())
+                    ? new ReplayAudioTrack(replay, track) : track.makeClone();
+            QueuedTrack clone = new QueuedTrack(again, track.getUserData(RequestMetadata.class));
             if(repeatMode == RepeatMode.ALL)
                 queue.add(clone);
             else
@@ -187,6 +614,8 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
             if(!playFromDefault())
             {
                 manager.getBot().getNowplayingHandler().onTrackUpdate(null);
+                manager.getFrameBufferBudget().release(guildId);
+                replay.release();
                 if(!manager.getBot().getConfig().getStay())
                     manager.getBot().closeAudioConnection(guildId);
                 // unpause, in the case when the player was paused and the track has been skipped.
@@ -196,8 +625,7 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
         }
         else
         {
-            QueuedTrack qt = queue.pull();
-            player.playTrack(qt.getTrack());
+            playNext(queue.pull());
         }
     }
 
@@ -209,8 +637,19 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
     @Override
     public void onTrackStart(AudioPlayer player, AudioTrack track) 
     {
+        if(player != audioPlayer)
+            return;
         votes.clear();
+        if(!(track instanceof ReplayAudioTrack))
+            replay.clear();
+        if(!(track instanceof CachedAudioTrack) && !(track instanceof ReplayAudioTrack)
+                && track.getPosition() == 0 && isCacheable(track) && isFullQuality())
+            recorder.begin(CachedAudioTrack.keyOf(track));
+        else
+            recorder.cancel();
         manager.getBot().getNowplayingHandler().onTrackUpdate(track);
+        if(track.getDuration() != Long.MAX_VALUE)
+            schedulePrefetch(track, track.getDuration() - track.getPosition() - PREFETCH_MILLIS);
     }
 
     
@@ -305,14 +744,25 @@ public class AudioHandler extends AudioEventAdapter implements AudioSendHandler
     @Override
     public boolean canProvide() 
     {
-        lastFrame = audioPlayer.provide();
-        return lastFrame != null;
+        boolean provided = audioPlayer.provide(frame);
+        if(provided)
+        {
+            recorder.append(frameBuffer.array(), frame.getDataLength(), frame.getTimecode(), frame.getVolume());
+            replay.append(frameBuffer.array(), frame.getDataLength(), frame.getTimecode(), frame.getVolume());
+        }
+        sendStats.record(provided, provided || (audioPlayer.getPlayingTrack() != null && !audioPlayer.isPaused()));
+        if(provided && transitionStart != 0)
+        {
+            sendStats.recordTransition(System.nanoTime() - transitionStart, transitionPrefetched);
+            transitionStart = 0;
+        }
+        return provided;
     }
 
     @Override
     public ByteBuffer provide20MsAudio() 
     {
-        return ByteBuffer.wrap(lastFrame.getData());
+        return frameBuffer.flip();
     }
 
     @Override
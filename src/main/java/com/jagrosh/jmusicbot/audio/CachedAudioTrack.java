@@ -0,0 +1,139 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.audio;
+
+import com.sedmelluq.discord.lavaplayer.format.AudioDataFormat;
+import com.sedmelluq.discord.lavaplayer.format.StandardAudioDataFormats;
+import com.sedmelluq.discord.lavaplayer.source.AudioSourceManager;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.DelegatedAudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.InternalAudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.playback.AudioFrameBuffer;
+import com.sedmelluq.discord.lavaplayer.track.playback.LocalAudioTrackExecutor;
+import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A track played from the Opus frames the {@link FrameCache} kept from an
+ * earlier play, read out of a memory-mapped file. It looks like the original
+ * track to everything else, and clones back into it.
+ *
+ * The frames are already Opus, so the guild's volume doesn't apply to them.
+ * Once the volume is changed, a fresh copy of the original track takes over
+ * from where playback is, as the delegate.
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class CachedAudioTrack extends DelegatedAudioTrack
+{
+    private final static AudioDataFormat FORMAT = StandardAudioDataFormats.DISCORD_OPUS;
+    private final static int DEFAULT_VOLUME = 100;
+
+    private final FrameCache cache;
+    private final AudioTrack original;
+    private final Path path;
+    private volatile int next;
+
+    public CachedAudioTrack(FrameCache cache, AudioTrack original, Path path)
+    {
+        super(original.getInfo());
+        this.cache = cache;
+        this.original = original;
+        this.path = path;
+    }
+
+    /**
+     * @return the key the frame cache stores a track under
+     */
+    public static String keyOf(AudioTrack track)
+    {
+        if(track.getSourceManager() == null)
+            return track.getIdentifier();
+        return track.getSourceManager().getSourceName() + ":" + track.getIdentifier();
+    }
+
+    @Override
+    public void process(LocalAudioTrackExecutor executor) throws Exception
+    {
+        FrameSegment segment;
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            segment = FrameSegment.read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        catch(IOException e)
+        {
+            cache.invalidate(keyOf(original));
+            throw new FriendlyException("The cached copy of this track couldn't be read.", FriendlyException.Severity.SUSPICIOUS, e);
+        }
+        AudioFrameBuffer buffer = executor.getProcessingContext().frameBuffer;
+        byte[] data = new byte[FORMAT.maximumChunkSize()];
+        MutableAudioFrame frame = new MutableAudioFrame();
+        frame.setBuffer(ByteBuffer.allocate(FORMAT.maximumChunkSize()));
+        frame.setFormat(FORMAT);
+        frame.setVolume(DEFAULT_VOLUME);
+        AtomicInteger volume = executor.getProcessingContext().playerOptions.volumeLevel;
+        boolean[] changed = {false};
+        next = segment.frameAt(getPosition());
+        LocalAudioTrackExecutor.ReadExecutor read = () ->
+        {
+            // the frame buffer copies each frame as it takes it, so one is reused
+            for(; next < segment.getFrameCount(); next++)
+            {
+                if(volume.get() != DEFAULT_VOLUME)
+                {
+                    changed[0] = true;
+                    return;
+                }
+                int length = segment.read(next, data);
+                frame.setTimecode((long) next * FrameSegment.FRAME_MILLIS);
+                frame.store(data, 0, length);
+                buffer.consume(frame);
+            }
+        };
+        LocalAudioTrackExecutor.SeekExecutor seek = position -> next = segment.frameAt(position);
+        executor.executeProcessingLoop(read, seek, false);
+        if(!changed[0])
+        {
+            // the end was read, but seeks still count until the buffer has played out
+            executor.executeProcessingLoop(read, seek, true);
+            return;
+        }
+        // the frames still buffered are at the old volume, so the source is
+        // seeked to what is playing now, which drops them
+        long position = getPosition();
+        InternalAudioTrack source = (InternalAudioTrack) original.makeClone();
+        executor.setPosition(position);
+        processDelegate(source, executor);
+    }
+
+    @Override
+    public AudioSourceManager getSourceManager()
+    {
+        return original.getSourceManager();
+    }
+
+    @Override
+    protected AudioTrack makeShallowClone()
+    {
+        return original.makeClone();
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.audio;
+
+import com.sedmelluq.discord.lavaplayer.format.AudioDataFormat;
+import com.sedmelluq.discord.lavaplayer.format.StandardAudioDataFormats;
+import com.sedmelluq.discord.lavaplayer.source.local.LocalAudioSourceManager;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Shares a memory cap between the frame buffers of every guild's player.
+ *
+ * Each track gets a buffer sized for its source: live streams stall the most
+ * and get a deep one, local files can't stall and get a shallow one, and the
+ * rest get lavaplayer's default. A guild that keeps underrunning can ask for
+ * more. Each guild has one reservation at a time, made when a track starts,
+ * and a reservation is cut down to what is left under the cap if it doesn't fit.
+ * A guild loading its next track ahead of time on a standby player holds a
+ * second one for that player, which takes over when the standby is switched to.
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class FrameBufferBudget
+{
+    // lavaplayer won't buffer less than this
+    public final static int MIN_DURATION = 200;
+    private final static int LOCAL_DURATION = 500;
+    private final static int REMOTE_DURATION = 5000;
+    private final static int STREAM_DURATION = 10000;
+    private final static AudioDataFormat FORMAT = StandardAudioDataFormats.DISCORD_OPUS;
+
+    private final long capacity;
+    private final Map<Long, Integer> reserved = new HashMap<>();
+    private final Map<Long, Integer> standby = new HashMap<>();
+    private long used;
+
+    /**
+     * @param capacity the most memory all of the frame buffers may take up, in bytes
+     */
+    public FrameBufferBudget(long capacity)
+    {
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return how many milliseconds of audio to buffer for a track, before
+     *         any adjustment for how the guild has been doing
+     */
+    public static int preferredDuration(AudioTrack track)
+    {
+        if(track.getInfo().isStream)
+            return STREAM_DURATION;
+        if(track.getSourceManager() instanceof LocalAudioSourceManager)
+            return LOCAL_DURATION;
+        return REMOTE_DURATION;
+    }
+
+    /**
+     * @return roughly how much memory a frame buffer of a duration takes up, in bytes
+     */
+    public static long bytesFor(int duration)
+    {
+        return (long) FORMAT.expectedChunkSize() * (duration / FORMAT.frameDuration() + 1);
+    }
+
+    /**
+     * Replaces a guild's reservation with one for the given duration, or as
+     * much of it as fits under the cap.
+     *
+     * @return the duration to buffer, in milliseconds; never less than
+     *         {@link #MIN_DURATION}, even if the cap is already used up
+     */
+    public synchronized int reserve(long guildId, int duration)
+    {
+        return reserve(reserved, guildId, duration);
+    }
+
+    /**
+     * Like {@link #reserve}, but for the buffer of a guild's standby player,
+     * which is held alongside the reservation of the player still playing.
+     */
+    public synchronized int reserveStandby(long guildId, int duration)
+    {
+        return reserve(standby, guildId, duration);
+    }
+
+    /**
+     * Makes a guild's standby reservation its main one, once the standby
+     * player has been switched to and the old player's buffer is done with.
+     */
+    public synchronized void promoteStandby(long guildId)
+    {
+        Integer duration = standby.remove(guildId);
+        if(duration == null)
+            return;
+        release(reserved, guildId);
+        reserved.put(guildId, duration);
+    }
+
+    /**
+     * Releases both of a guild's reservations.
+     */
+    public synchronized void release(long guildId)
+    {
+        release(reserved, guildId);
+        release(standby, guildId);
+    }
+
+    /**
+     * Releases a guild's standby reservation, when what it was loading ahead
+     * of time is thrown away.
+     */
+    public synchronized void releaseStandby(long guildId)
+    {
+        release(standby, guildId);
+    }
+
+    private int reserve(Map<Long, Integer> reservations, long guildId, int duration)
+    {
+        release(reservations, guildId);
+        long free = capacity - used;
+        int granted = duration;
+        while(granted > MIN_DURATION && bytesFor(granted) > free)
+            granted = Math.max(MIN_DURATION, granted / 2);
+        reservations.put(guildId, granted);
+        used += bytesFor(granted);
+        return granted;
+    }
+
+    private void release(Map<Long, Integer> reservations, long guildId)
+    {
+        Integer duration = reservations.remove(guildId);
+        if(duration != null)
+            used -= bytesFor(duration);
+    }
+
+    /**
+     * @return the memory reserved by all of the guilds, in bytes
+     */
+    public synchronized long getUsed()
+    {
+        return used;
+    }
+
+    public long getCapacity()
+    {
+        return capacity;
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.audio;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the Opus frames of tracks that have been played all the way through
+ * on disk, so the next play of the same track can skip downloading and
+ * transcoding it.
+ *
+ * Each track is one {@link FrameSegment} file, named after a hash of its
+ * source and identifier. The least recently played files are deleted once
+ * the folder grows past its size limit; a file's modified time is bumped when
+ * it is played, so that order survives a restart. Files are written and
+ * touched on a thread of the cache's own.
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class FrameCache
+{
+    private final static Logger LOGGER = LoggerFactory.getLogger(FrameCache.class);
+    private final static String EXTENSION = ".frames";
+
+    private final Path folder;
+    private final long capacity;
+    // file name to size, least recently played first
+    private final LinkedHashMap<String, Long> files = new LinkedHashMap<>(16, 0.75f, true);
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r ->
+    {
+        Thread thread = new Thread(r, "frame-cache");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private long used;
+
+    /**
+     * @param folder where to keep the files
+     * @param capacity the most the files may take up together, in bytes; 0
+     *                 turns the cache off
+     */
+    public FrameCache(Path folder, long capacity)
+    {
+        this.folder = folder;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Picks up the files left by an earlier run.
+     */
+    public synchronized void load()
+    {
+        if(!isEnabled() || !Files.isDirectory(folder))
+            return;
+        List<Path> found = new ArrayList<>();
+        try(DirectoryStream<Path> stream = Files.newDirectoryStream(folder))
+        {
+            for(Path path : stream)
+            {
+                String name = path.getFileName().toString();
+                if(name.endsWith(EXTENSION))
+                    found.add(path);
+                else if(name.endsWith(".tmp"))
+                    Files.deleteIfExists(path);
+            }
+            found.sort(Comparator.comparing(FrameCache::modified));
+            for(Path path : found)
+            {
+                long size = Files.size(path);
+                files.put(path.getFileName().toString(), size);
+                used += size;
+            }
+        }
+        catch(IOException e)
+        {
+            LOGGER.warn("Failed to read the frame cache folder", e);
+        }
+        evict();
+        LOGGER.info("Loaded {} cached tracks ({} MB)", files.size(), used / (1024 * 1024));
+    }
+
+    public boolean isEnabled()
+    {
+        return capacity > 0;
+    }
+
+    /**
+     * @param key the track's source and identifier
+     * @return the track's segment file, or null if it isn't cached
+     */
+    public Path lookup(String key)
+    {
+        if(!isEnabled())
+            return null;
+        String name = fileName(key);
+        synchronized(this)
+        {
+            if(files.get(name) == null)
+            {
+                misses.incrementAndGet();
+                return null;
+            }
+        }
+        hits.incrementAndGet();
+        Path path = folder.resolve(name);
+        writer.execute(() -> touch(path));
+        return path;
+    }
+
+    /**
+     * Saves a track's recording in the background, making room for it first,
+     * and releases the recording once it has been written.
+     */
+    public Future<?> store(String key, FrameRecorder.Recording recording)
+    {
+        if(!isEnabled() || recording.getLength() > capacity)
+        {
+            recording.release();
+            return CompletableFuture.completedFuture(null);
+        }
+        return writer.submit(() ->
+        {
+            String name = fileName(key);
+            Path path = folder.resolve(name);
+            Path temp = folder.resolve(name + ".tmp");
+            try
+            {
+                Files.createDirectories(folder);
+                try(OutputStream out = Files.newOutputStream(temp))
+                {
+                    recording.writeTo(out);
+                }
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch(IOException e)
+            {
+                LOGGER.warn("Failed to cache the frames of {}", key, e);
+                return;
+            }
+            finally
+            {
+                recording.release();
+            }
+            synchronized(this)
+            {
+                Long old = files.put(name, (long) recording.getLength());
+                used += recording.getLength() - (old == null ? 0 : old);
+                evict();
+            }
+        });
+    }
+
+    /**
+     * Drops a track's file, such as one that turned out to be damaged.
+     */
+    public synchronized void invalidate(String key)
+    {
+        String name = fileName(key);
+        Long size = files.remove(name);
+        if(size == null)
+            return;
+        used -= size;
+        delete(folder.resolve(name));
+    }
+
+    public long getHits()
+    {
+        return hits.get();
+    }
+
+    public long getMisses()
+    {
+        return misses.get();
+    }
+
+    public synchronized int getFiles()
+    {
+        return files.size();
+    }
+
+    /**
+     * @return how much the files take up, in bytes
+     */
+    public synchronized long getUsed()
+    {
+        return used;
+    }
+
+    public long getCapacity()
+    {
+        return capacity;
+    }
+
+    public void shutdown()
+    {
+        writer.shutdown();
+    }
+
+    private void evict()
+    {
+        Iterator<Map.Entry<String, Long>> it = files.entrySet().iterator();
+        while(used > capacity && it.hasNext())
+        {
+            Map.Entry<String, Long> eldest = it.next();
+            it.remove();
+            used -= eldest.getValue();
+            // on some systems a file being played can't be deleted; it's
+            // forgotten either way, and picked up again on the next start
+            delete(folder.resolve(eldest.getKey()));
+        }
+    }
+
+    private static void touch(Path path)
+    {
+        try
+        {
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+        }
+        catch(IOException e)
+        {
+            LOGGER.debug("Failed to touch {}", path, e);
+        }
+    }
+
+    private static void delete(Path path)
+    {
+        try
+        {
+            Files.deleteIfExists(path);
+        }
+        catch(IOException e)
+        {
+            LOGGER.debug("Failed to delete {}", path, e);
+        }
+    }
+
+    private static FileTime modified(Path path)
+    {
+        try
+        {
+            return Files.getLastModifiedTime(path);
+        }
+        catch(IOException e)
+        {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static String fileName(String key)
+    {
+        try
+        {
+            StringBuilder sb = new StringBuilder();
+            for(byte b : MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8)))
+                sb.append(String.format("%02x", b));
+            return sb.append(EXTENSION).toString();
+        }
+        catch(NoSuchAlgorithmException e)
+        {
+            // every Java platform has to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
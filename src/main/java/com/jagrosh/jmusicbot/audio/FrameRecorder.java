@@ -0,0 +1,230 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.audio;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the Opus frames a track sends, so that a track played all the way
+ * through can be stored as a {@link FrameSegment}.
+ *
+ * A recording is thrown away as soon as it can't be a clean copy of the
+ * track: when a frame is skipped or repeated, as a seek does, or was made at
+ * a volume other than the default. Its memory is taken a chunk at a time from
+ * the pool the guilds' {@link ReplayBuffer}s share, so every recording
+ * together stays under that pool's cap, and a recording that finds the pool
+ * empty is given up. The chunks go back to the pool as soon as a recording
+ * is thrown away, or once a finished one has been written out.
+ * The send thread records while other threads start and stop tracks, so
+ * every method locks, though the lock is hardly ever contended.
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class FrameRecorder
+{
+    private final static int CHUNK_BYTES = ReplayBuffer.CHUNK_BYTES;
+    private final static int DEFAULT_VOLUME = 100;
+
+    private final ReplayBuffer.Pool pool;
+    private final int maxFrames;
+    private final List<byte[]> chunks = new ArrayList<>();
+    // each frame's two byte length, reused so recording allocates nothing but chunks
+    private final byte[] prefix = new byte[2];
+    private int length;
+    private int frames;
+    private long nextTimecode;
+    private String key;
+
+    /**
+     * @param pool      the memory to record into
+     * @param maxFrames the longest recording to keep, in frames
+     */
+    public FrameRecorder(ReplayBuffer.Pool pool, int maxFrames)
+    {
+        this.pool = pool;
+        this.maxFrames = maxFrames;
+    }
+
+    /**
+     * Starts a new recording, dropping any earlier one.
+     *
+     * @param key the cache key of the track about to play
+     */
+    public synchronized void begin(String key)
+    {
+        cancel();
+        this.key = key;
+        length = FrameSegment.HEADER_BYTES;
+        frames = 0;
+        nextTimecode = 0;
+    }
+
+    /**
+     * Drops the recording, giving its memory back to the pool.
+     */
+    public synchronized void cancel()
+    {
+        key = null;
+        pool.give((long) chunks.size() * CHUNK_BYTES);
+        chunks.clear();
+    }
+
+    /**
+     * @return the key of the track being recorded, or null if nothing is
+     */
+    public synchronized String getKey()
+    {
+        return key;
+    }
+
+    /**
+     * Adds the next frame sent, or gives up on the recording if it doesn't
+     * follow on from the last one.
+     */
+    public synchronized void append(byte[] frame, int frameLength, long timecode, int volume)
+    {
+        if(key == null)
+            return;
+        if(volume != DEFAULT_VOLUME || frames >= maxFrames
+                || Math.abs(timecode - nextTimecode) >= FrameSegment.FRAME_MILLIS
+                || !reserve(2 + frameLength))
+        {
+            cancel();
+            return;
+        }
+        prefix[0] = (byte) (frameLength >> 8);
+        prefix[1] = (byte) frameLength;
+        put(prefix, 2);
+        put(frame, frameLength);
+        frames++;
+        nextTimecode = timecode + FrameSegment.FRAME_MILLIS;
+    }
+
+    /**
+     * Ends the recording.
+     *
+     * @param duration how long the track is, in milliseconds
+     * @return the recording as a segment, which holds on to its memory until
+     *         it is {@link Recording#release released}, or null if it wasn't a
+     *         clean copy of the whole track
+     */
+    public synchronized Recording finish(long duration)
+    {
+        if(key == null)
+            return null;
+        // the last frame may be cut short, or padded out
+        if(frames == 0 || Math.abs((long) frames * FrameSegment.FRAME_MILLIS - duration) > 1000)
+        {
+            cancel();
+            return null;
+        }
+        ByteBuffer.wrap(chunks.get(0))
+                .putInt(FrameSegment.MAGIC)
+                .putInt(FrameSegment.VERSION)
+                .putInt(frames);
+        Recording recording = new Recording(pool, chunks.toArray(new byte[0][]), length);
+        chunks.clear();
+        key = null;
+        return recording;
+    }
+
+    // takes enough chunks from the pool to fit some more bytes
+    private boolean reserve(int bytes)
+    {
+        while((long) chunks.size() * CHUNK_BYTES < length + bytes)
+        {
+            if(!pool.take(CHUNK_BYTES))
+                return false;
+            chunks.add(new byte[CHUNK_BYTES]);
+        }
+        return true;
+    }
+
+    // copies bytes in after the recording so far, across chunks where they meet
+    private void put(byte[] bytes, int count)
+    {
+        int from = 0;
+        while(from < count)
+        {
+            byte[] chunk = chunks.get(length / CHUNK_BYTES);
+            int offset = length % CHUNK_BYTES;
+            int part = Math.min(count - from, CHUNK_BYTES - offset);
+            System.arraycopy(bytes, from, chunk, offset, part);
+            from += part;
+            length += part;
+        }
+    }
+
+    /**
+     * A finished recording, kept in the pool's memory until it is written out.
+     */
+    public static class Recording
+    {
+        private final ReplayBuffer.Pool pool;
+        private final byte[][] chunks;
+        private final int length;
+        private boolean released;
+
+        private Recording(ReplayBuffer.Pool pool, byte[][] chunks, int length)
+        {
+            this.pool = pool;
+            this.chunks = chunks;
+            this.length = length;
+        }
+
+        /**
+         * @return the size of the segment, in bytes
+         */
+        public int getLength()
+        {
+            return length;
+        }
+
+        /**
+         * Writes the segment out.
+         *
+         * @throws IllegalStateException if the recording was already released
+         */
+        public synchronized void writeTo(OutputStream out) throws IOException
+        {
+            if(released)
+                throw new IllegalStateException("The recording was already released");
+            int left = length;
+            for(byte[] chunk : chunks)
+            {
+                int part = Math.min(left, chunk.length);
+                out.write(chunk, 0, part);
+                left -= part;
+            }
+        }
+
+        /**
+         * Gives the recording's memory back to the pool. Only the first call
+         * does anything.
+         */
+        public synchronized void release()
+        {
+            if(released)
+                return;
+            released = true;
+            pool.give((long) chunks.length * CHUNK_BYTES);
+        }
+    }
+}
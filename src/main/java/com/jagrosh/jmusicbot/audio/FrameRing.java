@@ -0,0 +1,151 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.audio;
+
+/**
+ * A fixed-size ring that one thread writes into and any number of readers
+ * follow at their own pace, without locking.
+ *
+ * The writer never waits for readers: a reader that falls the ring's
+ * capacity behind has missed those items, and skips ahead to near the newest
+ * one. Items have to be safe to share between threads, since every
+ * reader gets the same instance.
+ *
+ * @param <T> the type of the items
+ * @author Alex Yau (TheMajoris)
+ */
+public class FrameRing<T>
+{
+    private final Object[] slots;
+    private final int mask;
+    // how many items have ever been published; a slot is written before this
+    // is bumped, so a reader that sees the count also sees the item
+    private volatile long written;
+    private volatile boolean finished;
+
+    /**
+     * @param capacity how many of the newest items to keep; rounded up to a
+     *                 power of two
+     */
+    public FrameRing(int capacity)
+    {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        slots = new Object[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Adds an item, overwriting the oldest one if the ring is full. Only one
+     * thread may call this.
+     */
+    public void publish(T item)
+    {
+        long next = written;
+        slots[(int) (next & mask)] = item;
+        written = next + 1;
+    }
+
+    /**
+     * Marks that nothing more will be published. Readers still get the items
+     * that were published before this.
+     */
+    public void finish()
+    {
+        finished = true;
+    }
+
+    public boolean isFinished()
+    {
+        return finished;
+    }
+
+    public int getCapacity()
+    {
+        return slots.length;
+    }
+
+    public long getWritten()
+    {
+        return written;
+    }
+
+    /**
+     * @param lead how many of the already published items the reader starts
+     *             with, and how far behind the newest item it lands if it is
+     *             ever lapped
+     * @return a new reader
+     */
+    public Cursor cursor(int lead)
+    {
+        return new Cursor(Math.max(0, Math.min(lead, slots.length / 2)));
+    }
+
+    /**
+     * One reader's position in the ring. Only one thread may use a cursor.
+     */
+    public class Cursor
+    {
+        private final int lead;
+        private long position;
+        private long skipped;
+
+        private Cursor(int lead)
+        {
+            this.lead = lead;
+            this.position = Math.max(0, written - lead);
+        }
+
+        /**
+         * @return the next item, or null if the reader has caught up
+         */
+        @SuppressWarnings("unchecked")
+        public T next()
+        {
+            while(true)
+            {
+                long available = written;
+                if(position >= available)
+                    return null;
+                // a whole ring behind, the slot is the one the writer fills next
+                if(available - position >= slots.length)
+                {
+                    skipTo(available - lead);
+                    continue;
+                }
+                T item = (T) slots[(int) (position & mask)];
+                // the writer may have lapped the slot while it was being read
+                if(written - position >= slots.length)
+                    continue;
+                position++;
+                return item;
+            }
+        }
+
+        /**
+         * @return how many items this reader has missed by falling behind
+         */
+        public long getSkipped()
+        {
+            return skipped;
+        }
+
+        private void skipTo(long target)
+        {
+            skipped += target - position;
+            position = target;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.audio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * The Opus frames of one whole track, as stored by the {@link FrameCache}.
+ *
+ * A segment is a header (a magic number, a version and the frame count)
+ * followed by each frame as a two byte length and its data, every frame
+ * being 20ms long. Reading one indexes where each frame starts, so the track
+ * can be seeked without scanning.
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class FrameSegment
+{
+    public final static int MAGIC = 0x4A4D4643;
+    public final static int VERSION = 1;
+    public final static int HEADER_BYTES = 12;
+    public final static int FRAME_MILLIS = 20;
+
+    private final ByteBuffer data;
+    private final int[] offsets;
+
+    private FrameSegment(ByteBuffer data, int[] offsets)
+    {
+        this.data = data;
+        this.offsets = offsets;
+    }
+
+    /**
+     * @param data a whole segment, such as a memory-mapped file
+     * @throws IOException if it isn't a complete segment
+     */
+    public static FrameSegment read(ByteBuffer data) throws IOException
+    {
+        ByteBuffer view = data.duplicate();
+        if(view.remaining() < HEADER_BYTES || view.getInt() != MAGIC || view.getInt() != VERSION)
+            throw new IOException("Not a frame segment");
+        int count = view.getInt();
+        if(count < 0)
+            throw new IOException("Bad frame count " + count);
+        int[] offsets = new int[count];
+        for(int i=0; i<count; i++)
+        {
+            if(view.remaining() < 2)
+                throw new IOException("Segment ends at frame " + i + " of " + count);
+            int length = Short.toUnsignedInt(view.getShort());
+            if(view.remaining() < length)
+                throw new IOException("Segment ends at frame " + i + " of " + count);
+            offsets[i] = view.position();
+            view.position(view.position() + length);
+        }
+        return new FrameSegment(data.duplicate(), offsets);
+    }
+
+    public int getFrameCount()
+    {
+        return offsets.length;
+    }
+
+    public long getDuration()
+    {
+        return (long) offsets.length * FRAME_MILLIS;
+    }
+
+    /**
+     * @return the index of the frame playing at a position, in milliseconds
+     */
+    public int frameAt(long position)
+    {
+        return (int) Math.max(0, Math.min(position / FRAME_MILLIS, offsets.length));
+    }
+
+    /**
+     * Copies a frame's data. Only one thread may read a segment at a time.
+     *
+     * @return the frame's length in bytes
+     */
+    public int read(int frame, byte[] target)
+    {
+        int offset = offsets[frame];
+        int length = Short.toUnsignedInt(data.getShort(offset - 2));
+        data.position(offset);
+        data.get(target, 0, length);
+        return length;
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.audio;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.NoRouteToHostException;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import net.dv8tion.jda.api.audio.factory.IAudioSendFactory;
+import net.dv8tion.jda.api.audio.factory.IAudioSendSystem;
+import net.dv8tion.jda.api.audio.factory.IPacketProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends every voice connection's packets from one dedicated, high priority
+ * thread that does nothing else, so that the timing of the packets doesn't
+ * depend on how long it takes to get the audio ready.
+ *
+ * A second thread builds each connection's next few packets ahead of time,
+ * which pulls the audio, encrypts it and copies it into buffers made once per
+ * connection. The send thread only takes a ready packet off each queue every
+ * 20ms, waking a little early and spinning for the last moment to hit its
+ * deadline. The cost is that the audio lags by the few packets queued.
+ * Both threads end once the last connection is shut down, and are started
+ * again for the next one.
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class LowJitterSendFactory implements IAudioSendFactory
+{
+    private final static Logger LOGGER = LoggerFactory.getLogger(LowJitterSendFactory.class);
+    private final static long FRAME_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+    // how many packets each connection has ready ahead of time
+    private final static int PREBUFFER = 5;
+    // the send thread parks until this close to its deadline, then spins
+    private final static long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    // a send thread this far behind gives up on catching up
+    private final static long MAX_LAG_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private final static int PACKET_BYTES = 4096;
+
+    private final PacketTimings timings;
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private volatile Thread sender;
+    private volatile Thread builder;
+
+    public LowJitterSendFactory(PacketTimings timings)
+    {
+        this.timings = timings;
+    }
+
+    @Override
+    public IAudioSendSystem createSendSystem(IPacketProvider packetProvider)
+    {
+        return new Connection(packetProvider);
+    }
+
+    private synchronized void startThreads()
+    {
+        if(sender == null)
+        {
+            sender = new Thread(this::sendLoop, "low-jitter-audio-send");
+            sender.setPriority(Thread.MAX_PRIORITY);
+            sender.setDaemon(true);
+            sender.start();
+        }
+        if(builder == null)
+        {
+            builder = new Thread(this::buildLoop, "low-jitter-audio-build");
+            builder.setDaemon(true);
+            builder.start();
+        }
+    }
+
+    // lets the calling loop's thread end when there are no connections left;
+    // a connection starting afterwards sees it gone and starts another
+    private synchronized boolean stopIfIdle()
+    {
+        if(!connections.isEmpty())
+            return false;
+        if(Thread.currentThread() == sender)
+            sender = null;
+        else if(Thread.currentThread() == builder)
+            builder = null;
+        return true;
+    }
+
+    private void sendLoop()
+    {
+        long deadline = System.nanoTime();
+        while(!stopIfIdle())
+        {
+            deadline += FRAME_NANOS;
+            long now;
+            while((now = System.nanoTime()) < deadline - SPIN_NANOS)
+                LockSupport.parkNanos(deadline - SPIN_NANOS - now);
+            while(System.nanoTime() < deadline)
+                Thread.onSpinWait();
+            for(Connection connection : connections)
+            {
+                try
+                {
+                    connection.send();
+                }
+                catch(Exception e)
+                {
+                    LOGGER.error("Error while sending audio packets", e);
+                }
+            }
+            LockSupport.unpark(builder);
+            if(System.nanoTime() - deadline > MAX_LAG_NANOS)
+                deadline = System.nanoTime();
+        }
+    }
+
+    private void buildLoop()
+    {
+        while(!stopIfIdle())
+        {
+            for(Connection connection : connections)
+            {
+                try
+                {
+                    connection.build();
+                }
+                catch(Exception e)
+                {
+                    LOGGER.error("Error while building audio packets", e);
+                }
+            }
+            LockSupport.parkNanos(FRAME_NANOS);
+        }
+    }
+
+    /**
+     * One voice connection's queue of ready packets. The build thread adds
+     * to the tail and the send thread takes from the head, so neither locks.
+     */
+    private class Connection implements IAudioSendSystem
+    {
+        private final IPacketProvider provider;
+        private final byte[][] packets = new byte[PREBUFFER + 1][PACKET_BYTES];
+        private final int[] lengths = new int[PREBUFFER + 1];
+        private final DatagramPacket datagram = new DatagramPacket(new byte[0], 0);
+        private volatile long head;
+        private volatile long tail;
+        private boolean talking;
+        private long lastPacket;
+
+        private Connection(IPacketProvider provider)
+        {
+            this.provider = provider;
+        }
+
+        @Override
+        public void start()
+        {
+            connections.add(this);
+            startThreads();
+        }
+
+        @Override
+        public void shutdown()
+        {
+            connections.remove(this);
+        }
+
+        // tops the queue up from the provider
+        private void build()
+        {
+            while(tail - head < PREBUFFER)
+            {
+                ByteBuffer packet = provider.getNextPacketRaw(!talking);
+                talking = packet != null;
+                if(packet == null)
+                    return;
+                int slot = (int) (tail % packets.length);
+                if(packet.remaining() > packets[slot].length)
+                    packets[slot] = new byte[packet.remaining()];
+                lengths[slot] = packet.remaining();
+                packet.get(packets[slot], 0, lengths[slot]);
+                tail++;
+            }
+        }
+
+        // sends the packet at the head of the queue, if there is one
+        private void send()
+        {
+            if(head == tail)
+            {
+                lastPacket = 0;
+                return;
+            }
+            DatagramSocket socket = provider.getUdpSocket();
+            if(socket == null || socket.isClosed())
+                return;
+            // not connected yet, or reconnecting; the packet is dropped so the queue keeps moving
+            InetSocketAddress address = provider.getSocketAddress();
+            if(address == null)
+            {
+                head++;
+                return;
+            }
+            int slot = (int) (head % packets.length);
+            try
+            {
+                datagram.setData(packets[slot], 0, lengths[slot]);
+                datagram.setSocketAddress(address);
+                socket.send(datagram);
+                lastPacket = timings.record(lastPacket);
+            }
+            catch(NoRouteToHostException e)
+            {
+                provider.onConnectionLost();
+            }
+            catch(IOException e)
+            {
+                // most likely the socket closed along with the connection
+                LOGGER.debug("Failed to send an audio packet", e);
+            }
+            head++;
+        }
+    }
+}
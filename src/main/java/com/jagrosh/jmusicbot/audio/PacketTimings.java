@@ -0,0 +1,126 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.audio;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of the time between one voice packet going out and the next
+ * one of the same connection, across every connection, so that the audio
+ * send systems can be compared. Packets should be 20ms apart; anything else
+ * is jitter a listener may hear.
+ *
+ * Only packets sent back to back are counted; a connection that went quiet
+ * starts over with its next packet.
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class PacketTimings
+{
+    // upper bounds of the buckets, in microseconds
+    public final static long[] BOUNDS = {18000, 19000, 19500, 20500, 21000, 22000, 25000, 40000};
+    private final static long TARGET_MICROS = 20000;
+    // anything longer is a pause in the audio, not a late packet
+    private final static long MAX_INTERVAL_MICROS = 500000;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong deviation = new AtomicLong();
+    private final AtomicLong longest = new AtomicLong();
+
+    /**
+     * Records a packet going out.
+     *
+     * @param previous when the connection's previous packet went out, from
+     *                 {@link System#nanoTime()}, or 0 if it didn't send one
+     * @return the time to pass as the previous one next time
+     */
+    public long record(long previous)
+    {
+        long now = System.nanoTime();
+        if(previous != 0)
+        {
+            long micros = TimeUnit.NANOSECONDS.toMicros(now - previous);
+            if(micros < MAX_INTERVAL_MICROS)
+                add(micros);
+        }
+        return now;
+    }
+
+    /**
+     * Counts one interval between packets.
+     */
+    public void add(long micros)
+    {
+        int i = 0;
+        while(i < BOUNDS.length && micros >= BOUNDS[i])
+            i++;
+        buckets.incrementAndGet(i);
+        count.incrementAndGet();
+        deviation.addAndGet(Math.abs(micros - TARGET_MICROS));
+        longest.accumulateAndGet(micros, Math::max);
+    }
+
+    public long getCount()
+    {
+        return count.get();
+    }
+
+    /**
+     * @return how far from 20ms the packets were on average, in microseconds
+     */
+    public long getMeanJitterMicros()
+    {
+        long packets = count.get();
+        return packets == 0 ? 0 : deviation.get() / packets;
+    }
+
+    /**
+     * @return the longest time between two packets, in microseconds
+     */
+    public long getLongestMicros()
+    {
+        return longest.get();
+    }
+
+    /**
+     * @return the histogram as lines like "19.5-20.5ms: 1234 (98.1%)"
+     */
+    public String format()
+    {
+        long total = count.get();
+        StringBuilder sb = new StringBuilder();
+        for(int i=0; i<=BOUNDS.length; i++)
+        {
+            if(i > 0)
+                sb.append("\n");
+            long packets = buckets.get(i);
+            sb.append(i == 0 ? "<" + millis(BOUNDS[0])
+                    : i == BOUNDS.length ? ">=" + millis(BOUNDS[i-1])
+                    : millis(BOUNDS[i-1]) + "-" + millis(BOUNDS[i]))
+                    .append("ms: ").append(packets)
+                    .append(String.format(" (%.1f%%)", total == 0 ? 0.0 : 100.0 * packets / total));
+        }
+        return sb.toString();
+    }
+
+    private static String millis(long micros)
+    {
+        return micros % 1000 == 0 ? String.valueOf(micros / 1000) : String.valueOf(micros / 1000.0);
+    }
+}
@@ -18,7 +18,9 @@ package com.jagrosh.jmusicbot.audio;
 import com.dunctebot.sourcemanagers.DuncteBotSources;
 import com.jagrosh.jmusicbot.Bot;
 import com.jagrosh.jmusicbot.utils.OtherUtil;
+import com.jagrosh.jmusicbot.utils.VirtualThreads;
 import com.sedmelluq.discord.lavaplayer.container.MediaContainerRegistry;
+import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
 import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
 import com.sedmelluq.discord.lavaplayer.player.DefaultAudioPlayerManager;
 import com.sedmelluq.discord.lavaplayer.source.AudioSourceManagers;
@@ -30,6 +32,7 @@ import com.sedmelluq.discord.lavaplayer.source.nico.NicoAudioSourceManager;
 import com.sedmelluq.discord.lavaplayer.source.soundcloud.SoundCloudAudioSourceManager;
 import com.sedmelluq.discord.lavaplayer.source.twitch.TwitchStreamAudioSourceManager;
 import com.sedmelluq.discord.lavaplayer.source.vimeo.VimeoAudioSourceManager;
+import com.sedmelluq.discord.lavaplayer.track.playback.NonAllocatingAudioFrameBuffer;
 import dev.lavalink.youtube.YoutubeAudioSourceManager;
 import com.github.topi314.lavasrc.spotify.SpotifySourceManager;
 import com.github.topi314.lavasrc.mirror.DefaultMirroringAudioTrackResolver;
@@ -37,8 +40,16 @@ import net.dv8tion.jda.api.entities.Guild;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  *
@@ -46,13 +57,53 @@ import java.nio.file.NoSuchFileException;
  */
 public class PlayerManager extends DefaultAudioPlayerManager {
     private final static Logger LOGGER = LoggerFactory.getLogger(PlayerManager.class);
+    // loads wait on the network, so with virtual threads the limit is what
+    // the sources put up with rather than how many threads there are
+    private final static int VIRTUAL_LOADER_POOL_SIZE = 32;
     private final Bot bot;
+    private final StreamBroadcaster streamBroadcaster;
+    private final PacketTimings packetTimings = new PacketTimings();
+    private final List<String> virtualThreadPools = new ArrayList<>();
+    private FrameBufferBudget frameBufferBudget;
+    private FrameCache frameCache;
+    private ReplayBuffer.Pool replayPool;
+    private QualityGovernor qualityGovernor;
+    private ResolutionCache resolutionCache;
 
     public PlayerManager(Bot bot) {
         this.bot = bot;
+        this.streamBroadcaster = new StreamBroadcaster(this);
+        // players hand frames out by copying them into the send handler's buffer,
+        // so the frame buffer can reuse one array instead of a frame object each
+        getConfiguration().setFrameBufferFactory(NonAllocatingAudioFrameBuffer::new);
     }
 
     public void init() {
+        frameBufferBudget = new FrameBufferBudget(bot.getConfig().getFrameBufferMemory() * 1024L * 1024L);
+        frameCache = new FrameCache(OtherUtil.getPath("framecache"), bot.getConfig().getFrameCacheSize() * 1024L * 1024L);
+        frameCache.load();
+        replayPool = new ReplayBuffer.Pool(bot.getConfig().getReplayBufferMemory() * 1024L * 1024L);
+        if (bot.getConfig().useAdaptiveQuality()) {
+            qualityGovernor = new QualityGovernor(getConfiguration(), bot.getConfig().getAdaptiveQualityCpu());
+            qualityGovernor.start(bot.getThreadpool());
+        }
+        if (bot.getConfig().useVirtualThreads()) {
+            useVirtualThreads();
+        }
+
+        // ahead of every other source, so that it answers first
+        if (bot.getConfig().getResolutionCacheSize() > 0 || bot.getConfig().getSearchCacheSize() > 0) {
+            ResolutionStore disk = null;
+            if (bot.getConfig().getResolutionStoreSize() > 0) {
+                disk = new ResolutionStore(OtherUtil.getPath("resolutions.log"),
+                        bot.getConfig().getResolutionStoreSize() * 1024L * 1024L);
+                disk.load();
+            }
+            resolutionCache = new ResolutionCache(this, bot.getConfig().getResolutionCacheSize(),
+                    bot.getConfig().getSearchCacheSize(), disk);
+            registerSourceManager(resolutionCache);
+        }
+
         TransformativeAudioSourceManager.createTransforms(bot.getConfig().getTransforms())
                 .forEach(t -> registerSourceManager(t));
 
@@ -119,6 +170,55 @@ public class PlayerManager extends DefaultAudioPlayerManager {
         return yt;
     }
 
+    /**
+     * Moves lavaplayer's loader pool, and from Java 24 its playback pool, to
+     * virtual threads. Called by {@link #init()} when the setting is on.
+     */
+    // lavaplayer has no setting for its executors, but the playback and loader
+    // ones are plain thread pools, which can be given a new thread factory
+    public void useVirtualThreads() {
+        if (!VirtualThreads.isSupported()) {
+            LOGGER.warn("Virtual threads need Java 21 or newer, this is Java {}", Runtime.version().feature());
+            return;
+        }
+        for (Field field : DefaultAudioPlayerManager.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || !ExecutorService.class.isAssignableFrom(field.getType())) {
+                continue;
+            }
+            try {
+                field.setAccessible(true);
+                Object executor = field.get(this);
+                if (!(executor instanceof ThreadPoolExecutor) || executor instanceof ScheduledThreadPoolExecutor) {
+                    continue;
+                }
+                // only the playback pool is unbounded; its threads spend their time
+                // waiting in the frame buffer's synchronized block, which pins a
+                // virtual thread to its carrier before Java 24, so a thousand
+                // players would get no more than the scheduler's 256 carriers
+                boolean playback = ((ThreadPoolExecutor) executor).getMaximumPoolSize() == Integer.MAX_VALUE;
+                if (playback && !VirtualThreads.isPinningFixed()) {
+                    LOGGER.info("Keeping lavaplayer's {} on platform threads until Java 24", field.getName());
+                    continue;
+                }
+                VirtualThreads.adopt((ThreadPoolExecutor) executor, "lavaplayer-" + field.getName());
+                virtualThreadPools.add(field.getName());
+                if (!playback) {
+                    setItemLoaderThreadPoolSize(VIRTUAL_LOADER_POOL_SIZE);
+                }
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                LOGGER.warn("Could not move lavaplayer's {} to virtual threads", field.getName(), e);
+            }
+        }
+        LOGGER.info("Using virtual threads for {}", virtualThreadPools);
+    }
+
+    /**
+     * @return the names of lavaplayer's executors that run on virtual threads
+     */
+    public List<String> getVirtualThreadPools() {
+        return virtualThreadPools;
+    }
+
     public Bot getBot() {
         return bot;
     }
@@ -127,6 +227,56 @@ public class PlayerManager extends DefaultAudioPlayerManager {
         return guild.getAudioManager().getSendingHandler() != null;
     }
 
+    public FrameBufferBudget getFrameBufferBudget() {
+        return frameBufferBudget;
+    }
+
+    public FrameCache getFrameCache() {
+        return frameCache;
+    }
+
+    public ReplayBuffer.Pool getReplayPool() {
+        return replayPool;
+    }
+
+    /**
+     * @return the quality governor, or null if adaptive quality is turned off
+     */
+    public QualityGovernor getQualityGovernor() {
+        return qualityGovernor;
+    }
+
+    @Override
+    public void shutdown() {
+        super.shutdown();
+        if (resolutionCache != null && resolutionCache.getDisk() != null) {
+            resolutionCache.getDisk().shutdown();
+        }
+    }
+
+    @Override
+    public Future<Void> loadItemOrdered(Object orderingKey, String identifier, AudioLoadResultHandler resultHandler) {
+        if (resolutionCache == null) {
+            return super.loadItemOrdered(orderingKey, identifier, resultHandler);
+        }
+        return super.loadItemOrdered(orderingKey, identifier, resolutionCache.recording(identifier, resultHandler));
+    }
+
+    /**
+     * @return the cache of what identifiers resolved to, or null if it's turned off
+     */
+    public ResolutionCache getResolutionCache() {
+        return resolutionCache;
+    }
+
+    public PacketTimings getPacketTimings() {
+        return packetTimings;
+    }
+
+    public StreamBroadcaster getStreamBroadcaster() {
+        return streamBroadcaster;
+    }
+
     public AudioHandler setUpHandler(Guild guild) {
         AudioHandler handler;
         if (guild.getAudioManager().getSendingHandler() == null) {
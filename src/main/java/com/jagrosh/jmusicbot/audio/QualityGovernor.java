@@ -0,0 +1,206 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.audio;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioConfiguration;
+import com.sedmelluq.discord.lavaplayer.player.AudioConfiguration.ResamplingQuality;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lowers the Opus encoding and resampling quality of newly started tracks
+ * while the host is short of CPU, and raises it again once it isn't.
+ *
+ * Every few seconds it samples the process's CPU use and how late the
+ * sample itself ran, which shows how starved the bot's threads are. The
+ * quality drops a level after a couple of overloaded samples in a row, and
+ * only comes back up after a longer run of calm ones, so it doesn't flap.
+ * Tracks that are already playing keep the quality they started with.
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class QualityGovernor
+{
+    private final static Logger LOGGER = LoggerFactory.getLogger(QualityGovernor.class);
+    private final static long PERIOD_MILLIS = 5000;
+    // a sample this late means the bot's threads aren't getting enough CPU
+    private final static long LAG_LIMIT_MILLIS = 100;
+    // how far below the limit CPU use has to be for the host to count as calm
+    private final static double CALM_MARGIN = 0.2;
+    private final static int OVERLOADED_SAMPLES = 2;
+    private final static int CALM_SAMPLES = 6;
+
+    public enum Level
+    {
+        HIGH(10, ResamplingQuality.HIGH),
+        MEDIUM(8, ResamplingQuality.MEDIUM),
+        LOW(5, ResamplingQuality.LOW);
+
+        private final int opusQuality;
+        private final ResamplingQuality resamplingQuality;
+
+        private Level(int opusQuality, ResamplingQuality resamplingQuality)
+        {
+            this.opusQuality = opusQuality;
+            this.resamplingQuality = resamplingQuality;
+        }
+
+        public int getOpusQuality()
+        {
+            return opusQuality;
+        }
+
+        public ResamplingQuality getResamplingQuality()
+        {
+            return resamplingQuality;
+        }
+    }
+
+    private final AudioConfiguration configuration;
+    private final double cpuLimit;
+    private volatile Level level = Level.HIGH;
+    private volatile double cpu;
+    private volatile long lag;
+    private volatile int downgrades;
+    private volatile int upgrades;
+    private int overloaded;
+    private int calm;
+    private long nextSample;
+
+    /**
+     * @param configuration the configuration new tracks take their quality from
+     * @param cpuLimit the share of the host's CPU, from 0 to 1, at which the
+     *                 process counts as overloaded
+     */
+    public QualityGovernor(AudioConfiguration configuration, double cpuLimit)
+    {
+        this.configuration = configuration;
+        this.cpuLimit = cpuLimit;
+    }
+
+    /**
+     * Applies the highest quality and starts sampling.
+     */
+    public void start(ScheduledExecutorService executor)
+    {
+        apply();
+        nextSample = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(PERIOD_MILLIS);
+        executor.scheduleAtFixedRate(this::sample, PERIOD_MILLIS, PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void sample()
+    {
+        long now = System.nanoTime();
+        long late = Math.max(0, TimeUnit.NANOSECONDS.toMillis(now - nextSample));
+        // a fixed rate task that ran late has its next run come sooner, so
+        // the schedule is followed rather than the last run
+        nextSample += TimeUnit.MILLISECONDS.toNanos(PERIOD_MILLIS);
+        if(nextSample < now)
+            nextSample = now + TimeUnit.MILLISECONDS.toNanos(PERIOD_MILLIS);
+        update(processCpuLoad(), late);
+    }
+
+    /**
+     * Takes one sample into account, changing the level if it's time to.
+     *
+     * @param cpu the process's share of the host's CPU, from 0 to 1
+     * @param lag how late the sample ran, in milliseconds
+     * @return the level after the sample
+     */
+    public synchronized Level update(double cpu, long lag)
+    {
+        this.cpu = cpu;
+        this.lag = lag;
+        if(cpu >= cpuLimit || lag >= LAG_LIMIT_MILLIS)
+        {
+            calm = 0;
+            if(++overloaded >= OVERLOADED_SAMPLES && level.ordinal() < Level.values().length - 1)
+            {
+                overloaded = 0;
+                level = Level.values()[level.ordinal() + 1];
+                downgrades++;
+                apply();
+            }
+        }
+        else
+        {
+            overloaded = 0;
+            if(cpu < cpuLimit - CALM_MARGIN && lag < LAG_LIMIT_MILLIS / 4)
+            {
+                if(++calm >= CALM_SAMPLES && level.ordinal() > 0)
+                {
+                    calm = 0;
+                    level = Level.values()[level.ordinal() - 1];
+                    upgrades++;
+                    apply();
+                }
+            }
+            else
+                calm = 0;
+        }
+        return level;
+    }
+
+    public Level getLevel()
+    {
+        return level;
+    }
+
+    /**
+     * @return the process's share of the host's CPU at the last sample, from 0 to 1
+     */
+    public double getCpu()
+    {
+        return cpu;
+    }
+
+    /**
+     * @return how late the last sample ran, in milliseconds
+     */
+    public long getLag()
+    {
+        return lag;
+    }
+
+    public int getDowngrades()
+    {
+        return downgrades;
+    }
+
+    public int getUpgrades()
+    {
+        return upgrades;
+    }
+
+    private void apply()
+    {
+        configuration.setOpusEncodingQuality(level.getOpusQuality());
+        configuration.setResamplingQuality(level.getResamplingQuality());
+        LOGGER.info("Audio quality for new tracks set to {} (CPU {}%, lag {}ms)", level, Math.round(cpu * 100), lag);
+    }
+
+    private static double processCpuLoad()
+    {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if(os instanceof com.sun.management.OperatingSystemMXBean)
+            return Math.max(0, ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuLoad());
+        return 0;
+    }
+}
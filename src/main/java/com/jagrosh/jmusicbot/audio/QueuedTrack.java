@@ -46,6 +46,18 @@ public class QueuedTrack implements Queueable
         return requestMetadata.getOwner();
     }
     
+    @Override
+    public long getDuration()
+    {
+        return track.getDuration();
+    }
+    
+    @Override
+    public String getDuplicateKey()
+    {
+        return track.getIdentifier() == null ? track.getInfo().uri : track.getIdentifier();
+    }
+    
     public AudioTrack getTrack()
     {
         return track;
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.audio;
+
+import com.sedmelluq.discord.lavaplayer.format.AudioDataFormat;
+import com.sedmelluq.discord.lavaplayer.format.StandardAudioDataFormats;
+import com.sedmelluq.discord.lavaplayer.source.AudioSourceManager;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.DelegatedAudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.InternalAudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.playback.AudioFrameBuffer;
+import com.sedmelluq.discord.lavaplayer.track.playback.LocalAudioTrackExecutor;
+import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plays a track from a guild's {@link ReplayBuffer} for as long as the
+ * buffer has the frames, then carries on from the track's source where the
+ * buffer ran out. It looks like the original track to everything else.
+ *
+ * Where the buffer runs out, or as soon as the guild's volume is changed,
+ * since the buffered frames are at the default volume, a fresh copy of the
+ * original track is seeked to that point and takes over as the delegate, so
+ * seeks from then on go to it.
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class ReplayAudioTrack extends DelegatedAudioTrack
+{
+    private final static AudioDataFormat FORMAT = StandardAudioDataFormats.DISCORD_OPUS;
+    private final static int DEFAULT_VOLUME = 100;
+
+    private final ReplayBuffer buffer;
+    private final AudioTrack original;
+    private final long generation;
+    private volatile long next;
+
+    /**
+     * @param track the track the buffer holds the frames of
+     */
+    public ReplayAudioTrack(ReplayBuffer buffer, AudioTrack track)
+    {
+        this(buffer, track instanceof ReplayAudioTrack ? ((ReplayAudioTrack) track).original : track, buffer.getGeneration());
+    }
+
+    private ReplayAudioTrack(ReplayBuffer buffer, AudioTrack original, long generation)
+    {
+        super(original.getInfo());
+        this.buffer = buffer;
+        this.original = original;
+        this.generation = generation;
+    }
+
+    @Override
+    public void process(LocalAudioTrackExecutor executor) throws Exception
+    {
+        AudioFrameBuffer frameBuffer = executor.getProcessingContext().frameBuffer;
+        byte[] data = new byte[FORMAT.maximumChunkSize()];
+        MutableAudioFrame frame = new MutableAudioFrame();
+        frame.setBuffer(ByteBuffer.allocate(FORMAT.maximumChunkSize()));
+        frame.setFormat(FORMAT);
+        frame.setVolume(DEFAULT_VOLUME);
+        AtomicInteger volume = executor.getProcessingContext().playerOptions.volumeLevel;
+        boolean[] changed = {false};
+        executor.executeProcessingLoop(() ->
+        {
+            // the frame buffer copies each frame as it takes it, so one is reused
+            int length;
+            while((length = buffer.read(generation, next, data)) >= 0)
+            {
+                if(volume.get() != DEFAULT_VOLUME)
+                {
+                    changed[0] = true;
+                    return;
+                }
+                frame.setTimecode(next * FrameSegment.FRAME_MILLIS);
+                frame.store(data, 0, length);
+                frameBuffer.consume(frame);
+                next++;
+            }
+        }, position -> next = position / FrameSegment.FRAME_MILLIS, false);
+
+        long position;
+        if(changed[0])
+        {
+            // the replayed frames still buffered are at the old volume, so the
+            // source is seeked to what is playing now, which drops them
+            position = getPosition();
+        }
+        else
+        {
+            position = next * FrameSegment.FRAME_MILLIS;
+            if(position >= getDuration() - FrameSegment.FRAME_MILLIS)
+                return;
+            // seeking clears the frame buffer, so the replayed frames have to be
+            // sent before the source takes over
+            while(frameBuffer.getRemainingCapacity() < frameBuffer.getFullCapacity())
+                Thread.sleep(FrameSegment.FRAME_MILLIS);
+        }
+        // a fresh copy of the original carries on, picking the seek up as it
+        // starts its processing loop
+        InternalAudioTrack source = (InternalAudioTrack) original.makeClone();
+        executor.setPosition(position);
+        processDelegate(source, executor);
+    }
+
+    @Override
+    public AudioSourceManager getSourceManager()
+    {
+        return original.getSourceManager();
+    }
+
+    @Override
+    protected AudioTrack makeShallowClone()
+    {
+        return new ReplayAudioTrack(buffer, original, generation);
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.audio;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the most recently sent Opus frames of a guild's current track in
+ * memory, so the track can be played again or seeked backwards without going
+ * back to its source.
+ *
+ * Frames are kept in fixed-size chunks, numbered by their position in the
+ * track. Once the guild has used up its own limit, or the pool shared by all
+ * guilds has run dry, the oldest chunk is dropped and reused for the newest
+ * frames, so the buffer holds a sliding window that ends at whatever was sent
+ * last. A frame that doesn't follow on from the window starts a new one,
+ * unless it is already in it, as the frames of a replay are. A buffer that
+ * finds the pool empty before it has any memory keeps nothing until another
+ * guild stops playing and gives its memory back.
+ *
+ * The send thread writes while a replaying track reads, so every method locks.
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class ReplayBuffer
+{
+    public final static int CHUNK_BYTES = 64 * 1024;
+    private final static int DEFAULT_VOLUME = 100;
+    // Opus frames are never this small, so a chunk never runs out of offsets first
+    private final static int MIN_FRAME_BYTES = 16;
+
+    private final Pool pool;
+    private final int maxChunks;
+    private final ArrayDeque<Chunk> chunks = new ArrayDeque<>();
+    private final List<Chunk> spare = new ArrayList<>();
+    private long firstFrame;
+    private long nextFrame;
+    private long generation;
+
+    /**
+     * @param pool the memory shared by every guild's buffer
+     * @param capacity the most memory this buffer may take up, in bytes
+     */
+    public ReplayBuffer(Pool pool, long capacity)
+    {
+        this.pool = pool;
+        this.maxChunks = (int) Math.max(1, capacity / CHUNK_BYTES);
+    }
+
+    /**
+     * Adds the frame that was just sent.
+     */
+    public synchronized void append(byte[] frame, int length, long timecode, int volume)
+    {
+        long number = timecode / FrameSegment.FRAME_MILLIS;
+        if(volume != DEFAULT_VOLUME)
+        {
+            clear();
+            return;
+        }
+        if(number >= firstFrame && number < nextFrame)
+            return;
+        if(number != nextFrame || chunks.isEmpty())
+        {
+            clear();
+            firstFrame = nextFrame = number;
+        }
+        Chunk chunk = chunks.peekLast();
+        if(chunk == null || !chunk.fits(length))
+        {
+            chunk = newChunk();
+            if(chunk == null)
+            {
+                clear();
+                return;
+            }
+            chunk.firstFrame = nextFrame;
+            chunks.addLast(chunk);
+        }
+        chunk.offsets[chunk.frames++] = chunk.length;
+        chunk.data[chunk.length] = (byte) (length >> 8);
+        chunk.data[chunk.length + 1] = (byte) length;
+        System.arraycopy(frame, 0, chunk.data, chunk.length + 2, length);
+        chunk.length += 2 + length;
+        nextFrame++;
+    }
+
+    /**
+     * Copies a frame out of the buffer.
+     *
+     * @param generation the {@link #getGeneration() generation} the reader started in
+     * @param number the frame's position in the track, in frames
+     * @return the frame's length, or -1 if it isn't in the buffer any more
+     */
+    public synchronized int read(long generation, long number, byte[] target)
+    {
+        if(generation != this.generation || number < firstFrame || number >= nextFrame)
+            return -1;
+        Iterator<Chunk> it = chunks.descendingIterator();
+        while(it.hasNext())
+        {
+            Chunk chunk = it.next();
+            if(number < chunk.firstFrame)
+                continue;
+            int offset = chunk.offsets[(int) (number - chunk.firstFrame)];
+            int length = ((chunk.data[offset] & 0xFF) << 8) | (chunk.data[offset + 1] & 0xFF);
+            System.arraycopy(chunk.data, offset + 2, target, 0, length);
+            return length;
+        }
+        return -1;
+    }
+
+    /**
+     * @return whether a position in the track, in milliseconds, is in the buffer
+     */
+    public synchronized boolean contains(long position)
+    {
+        long number = position / FrameSegment.FRAME_MILLIS;
+        return !chunks.isEmpty() && number >= firstFrame && number < nextFrame;
+    }
+
+    /**
+     * @return whether the buffer holds a track from its start to within a
+     *         frame or so of its end
+     */
+    public synchronized boolean holdsWhole(long duration)
+    {
+        return !chunks.isEmpty() && firstFrame == 0 && nextFrame * FrameSegment.FRAME_MILLIS >= duration - 2 * FrameSegment.FRAME_MILLIS;
+    }
+
+    /**
+     * @return a number that changes whenever the buffer starts on a new window
+     */
+    public synchronized long getGeneration()
+    {
+        return generation;
+    }
+
+    /**
+     * Forgets the buffered frames, keeping the memory for the next track.
+     */
+    public synchronized void clear()
+    {
+        spare.addAll(chunks);
+        chunks.clear();
+        firstFrame = nextFrame = 0;
+        generation++;
+    }
+
+    /**
+     * Forgets the buffered frames and gives the memory back to the pool.
+     */
+    public synchronized void release()
+    {
+        clear();
+        pool.give((long) spare.size() * CHUNK_BYTES);
+        spare.clear();
+    }
+
+    // a spare chunk, a new one if there's room for it, or else the oldest one
+    private Chunk newChunk()
+    {
+        Chunk chunk;
+        if(!spare.isEmpty())
+            chunk = spare.remove(spare.size() - 1);
+        else if(chunks.size() < maxChunks && pool.take(CHUNK_BYTES))
+            chunk = new Chunk();
+        else
+        {
+            chunk = chunks.pollFirst();
+            if(chunk == null)
+                return null;
+            firstFrame = chunks.isEmpty() ? nextFrame : chunks.peekFirst().firstFrame;
+        }
+        chunk.frames = 0;
+        chunk.length = 0;
+        return chunk;
+    }
+
+    private static class Chunk
+    {
+        private final byte[] data = new byte[CHUNK_BYTES];
+        private final int[] offsets = new int[CHUNK_BYTES / MIN_FRAME_BYTES];
+        private long firstFrame;
+        private int frames;
+        private int length;
+
+        private boolean fits(int frameLength)
+        {
+            return length + 2 + frameLength <= data.length && frames < offsets.length;
+        }
+    }
+
+    /**
+     * Memory shared between every guild's replay buffer and frame recorder.
+     */
+    public static class Pool
+    {
+        private final long capacity;
+        private final AtomicLong used = new AtomicLong();
+
+        /**
+         * @param capacity the most memory all of the buffers may take up, in bytes
+         */
+        public Pool(long capacity)
+        {
+            this.capacity = capacity;
+        }
+
+        boolean take(long bytes)
+        {
+            long current;
+            do
+            {
+                current = used.get();
+                if(current + bytes > capacity)
+                    return false;
+            }
+            while(!used.compareAndSet(current, current + bytes));
+            return true;
+        }
+
+        void give(long bytes)
+        {
+            used.addAndGet(-bytes);
+        }
+
+        public long getUsed()
+        {
+            return used.get();
+        }
+
+        public long getCapacity()
+        {
+            return capacity;
+        }
+    }
+}
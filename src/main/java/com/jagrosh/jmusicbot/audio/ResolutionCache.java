@@ -0,0 +1,479 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.audio;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.source.AudioSourceManager;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.tools.io.MessageInput;
+import com.sedmelluq.discord.lavaplayer.tools.io.MessageOutput;
+import com.sedmelluq.discord.lavaplayer.track.AudioItem;
+import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
+import com.sedmelluq.discord.lavaplayer.track.AudioReference;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import com.sedmelluq.discord.lavaplayer.track.BasicAudioPlaylist;
+import com.sedmelluq.discord.lavaplayer.track.DecodedTrackHolder;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Remembers what identifiers resolved to, so that loading the same link or
+ * search again, from any guild, doesn't go back to the network.
+ *
+ * It sits in front of the other sources as a source of its own, so a cached
+ * result comes out of lavaplayer's loader like any other and loads keep their
+ * order. Tracks are kept encoded and decoded again on every hit, so each load
+ * gets tracks of its own. Identifiers that matched nothing, or failed in a
+ * way that's the user's fault, are remembered for a much shorter time.
+ *
+ * Searches are kept apart from links, for less time and in a table of their
+ * own, so a run of one-off searches doesn't push out the links. Searches that
+ * only differ in case or whitespace share their results.
+ *
+ * What links resolved to can also be kept in a {@link ResolutionStore}, which
+ * is read when a link isn't in memory, so they're remembered across restarts.
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class ResolutionCache implements AudioSourceManager
+{
+    private final static Logger LOGGER = LoggerFactory.getLogger(ResolutionCache.class);
+    private final static long TTL_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    // what a search finds changes sooner than what a link points to
+    private final static long SEARCH_TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    private final static long NEGATIVE_TTL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private final static String[] SEARCH_PREFIXES = {"ytsearch:", "ytmsearch:", "scsearch:", "spsearch:"};
+    private final static Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final AudioPlayerManager manager;
+    private final Table links;
+    private final Table searches;
+    private final ResolutionStore disk;
+    private long diskHits;
+
+    /**
+     * @param manager the manager that encodes and decodes the tracks
+     * @param capacity the most links and other identifiers to remember
+     * @param searchCapacity the most searches to remember
+     * @param disk where to keep the links across restarts, or null
+     */
+    public ResolutionCache(AudioPlayerManager manager, int capacity, int searchCapacity, ResolutionStore disk)
+    {
+        this.manager = manager;
+        this.links = new Table(capacity);
+        this.searches = new Table(searchCapacity);
+        this.disk = disk;
+    }
+
+    /**
+     * Wraps the handler of a load so that its result is remembered.
+     */
+    public AudioLoadResultHandler recording(String identifier, AudioLoadResultHandler handler)
+    {
+        return new Recorder(identifier, handler);
+    }
+
+    /**
+     * @return whether an identifier is a search rather than a link
+     */
+    public static boolean isSearch(String identifier)
+    {
+        String trimmed = identifier.trim().toLowerCase(Locale.ROOT);
+        for(String prefix : SEARCH_PREFIXES)
+            if(trimmed.startsWith(prefix))
+                return true;
+        return false;
+    }
+
+    /**
+     * Searches that differ only in case or whitespace find the same results,
+     * so they share a key. Other identifiers are used as they are.
+     *
+     * @return the key an identifier's result is kept under
+     */
+    public static String keyOf(String identifier)
+    {
+        if(!isSearch(identifier))
+            return identifier;
+        String trimmed = identifier.trim();
+        int colon = trimmed.indexOf(':');
+        return trimmed.substring(0, colon + 1).toLowerCase(Locale.ROOT)
+                + WHITESPACE.matcher(trimmed.substring(colon + 1).trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String getSourceName()
+    {
+        return "cache";
+    }
+
+    @Override
+    public AudioItem loadItem(AudioPlayerManager manager, AudioReference reference)
+    {
+        if(reference.identifier == null)
+            return null;
+        Entry entry = lookup(reference.identifier);
+        if(entry == null)
+            return null;
+        if(entry.failure != null)
+            throw new FriendlyException(entry.failure, FriendlyException.Severity.COMMON, null);
+        if(entry.tracks == null)
+            return AudioReference.NO_TRACK;
+        try
+        {
+            List<AudioTrack> tracks = new ArrayList<>(entry.tracks.length);
+            for(byte[] encoded : entry.tracks)
+            {
+                AudioTrack track = decode(encoded);
+                if(track == null)
+                    throw new IOException("No source decodes a cached track any more");
+                tracks.add(track);
+            }
+            if(entry.name == null)
+                return tracks.get(0);
+            return new BasicAudioPlaylist(entry.name, tracks, entry.selected < 0 ? null : tracks.get(entry.selected), entry.search);
+        }
+        catch(IOException | RuntimeException e)
+        {
+            LOGGER.debug("Failed to decode the cached result of {}", reference.identifier, e);
+            invalidate(reference.identifier);
+            return null;
+        }
+    }
+
+    public synchronized void invalidate(String identifier)
+    {
+        tableOf(identifier).remove(keyOf(identifier));
+        if(disk != null && !isSearch(identifier))
+            disk.remove(keyOf(identifier));
+    }
+
+    /**
+     * @return where the links are kept across restarts, or null
+     */
+    public ResolutionStore getDisk()
+    {
+        return disk;
+    }
+
+    /**
+     * @return how many of the link hits had to be read from disk
+     */
+    public synchronized long getDiskHits()
+    {
+        return diskHits;
+    }
+
+    /**
+     * @param search whether to count the searches rather than the links
+     */
+    public synchronized int getSize(boolean search)
+    {
+        return (search ? searches : links).size();
+    }
+
+    public int getCapacity(boolean search)
+    {
+        return (search ? searches : links).capacity;
+    }
+
+    public synchronized long getHits(boolean search)
+    {
+        return (search ? searches : links).hits;
+    }
+
+    /**
+     * @return how many of the hits were of identifiers that matched nothing or failed
+     */
+    public synchronized long getNegativeHits(boolean search)
+    {
+        return (search ? searches : links).negativeHits;
+    }
+
+    public synchronized long getMisses(boolean search)
+    {
+        return (search ? searches : links).misses;
+    }
+
+    /**
+     * @return the share of loads, from 0 to 1, that were answered from the cache
+     */
+    public synchronized double getHitRate(boolean search)
+    {
+        Table table = search ? searches : links;
+        return table.hits + table.misses == 0 ? 0 : (double) table.hits / (table.hits + table.misses);
+    }
+
+    private Table tableOf(String identifier)
+    {
+        return isSearch(identifier) ? searches : links;
+    }
+
+    private Entry lookup(String identifier)
+    {
+        Table table = tableOf(identifier);
+        String key = keyOf(identifier);
+        Entry entry;
+        synchronized(this)
+        {
+            entry = table.get(key);
+            if(entry != null && entry.expires < System.currentTimeMillis())
+            {
+                table.remove(key);
+                entry = null;
+            }
+        }
+        // a link that isn't in memory may still be on disk from an earlier run
+        if(entry == null && disk != null && table == links)
+        {
+            byte[] value = disk.get(key);
+            entry = value == null ? null : read(value);
+            if(entry != null)
+            {
+                synchronized(this)
+                {
+                    table.put(key, entry);
+                    diskHits++;
+                }
+            }
+        }
+        synchronized(this)
+        {
+            if(entry == null)
+                table.misses++;
+            else
+            {
+                table.hits++;
+                if(entry.tracks == null)
+                    table.negativeHits++;
+            }
+        }
+        return entry;
+    }
+
+    // whether a load's result came from the cache to begin with
+    private synchronized boolean holds(String identifier)
+    {
+        Entry current = tableOf(identifier).get(keyOf(identifier));
+        return current != null && current.expires >= System.currentTimeMillis();
+    }
+
+    private synchronized void store(String identifier, Entry entry)
+    {
+        if(!holds(identifier))
+            tableOf(identifier).put(keyOf(identifier), entry);
+    }
+
+    // only what a link resolved to is written, never a miss or failure
+    private static byte[] write(Entry entry) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeBoolean(entry.name != null);
+        if(entry.name != null)
+            out.writeUTF(entry.name);
+        out.writeInt(entry.selected);
+        out.writeBoolean(entry.search);
+        out.writeInt(entry.tracks.length);
+        for(byte[] track : entry.tracks)
+        {
+            out.writeInt(track.length);
+            out.write(track);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Entry read(byte[] value)
+    {
+        try
+        {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(value));
+            String name = in.readBoolean() ? in.readUTF() : null;
+            int selected = in.readInt();
+            boolean search = in.readBoolean();
+            byte[][] tracks = new byte[in.readInt()][];
+            for(int i=0; i<tracks.length; i++)
+            {
+                tracks[i] = new byte[in.readInt()];
+                in.readFully(tracks[i]);
+            }
+            return new Entry(TTL_MILLIS, tracks, name, selected, search, null);
+        }
+        catch(IOException | RuntimeException e)
+        {
+            LOGGER.debug("Failed to read a stored resolution", e);
+            return null;
+        }
+    }
+
+    private byte[] encode(AudioTrack track) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        manager.encodeTrack(new MessageOutput(bytes), track);
+        return bytes.toByteArray();
+    }
+
+    private AudioTrack decode(byte[] encoded) throws IOException
+    {
+        DecodedTrackHolder holder = manager.decodeTrack(new MessageInput(new ByteArrayInputStream(encoded)));
+        return holder == null ? null : holder.decodedTrack;
+    }
+
+    @Override
+    public boolean isTrackEncodable(AudioTrack track)
+    {
+        return false;
+    }
+
+    @Override
+    public void encodeTrack(AudioTrack track, DataOutput output)
+    {
+        // cached tracks are encoded by the source manager that loaded them
+    }
+
+    @Override
+    public AudioTrack decodeTrack(AudioTrackInfo trackInfo, DataInput input)
+    {
+        return null;
+    }
+
+    @Override
+    public void shutdown()
+    {
+    }
+
+    // the most recently used entries of one kind, with how well they've done
+    private static class Table extends LinkedHashMap<String, Entry>
+    {
+        private final int capacity;
+        private long hits, negativeHits, misses;
+
+        private Table(int capacity)
+        {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest)
+        {
+            return size() > capacity;
+        }
+    }
+
+    private static class Entry
+    {
+        private final long expires;
+        // null if the identifier matched nothing or failed
+        private final byte[][] tracks;
+        // null unless the identifier resolved to a playlist
+        private final String name;
+        private final int selected;
+        private final boolean search;
+        private final String failure;
+
+        private Entry(long ttl, byte[][] tracks, String name, int selected, boolean search, String failure)
+        {
+            this.expires = System.currentTimeMillis() + ttl;
+            this.tracks = tracks;
+            this.name = name;
+            this.selected = selected;
+            this.search = search;
+            this.failure = failure;
+        }
+    }
+
+    private class Recorder implements AudioLoadResultHandler
+    {
+        private final String identifier;
+        private final AudioLoadResultHandler handler;
+
+        private Recorder(String identifier, AudioLoadResultHandler handler)
+        {
+            this.identifier = identifier;
+            this.handler = handler;
+        }
+
+        @Override
+        public void trackLoaded(AudioTrack track)
+        {
+            remember(Collections.singletonList(track), null, -1, false);
+            handler.trackLoaded(track);
+        }
+
+        @Override
+        public void playlistLoaded(AudioPlaylist playlist)
+        {
+            List<AudioTrack> tracks = playlist.getTracks();
+            remember(tracks, playlist.getName(), tracks.indexOf(playlist.getSelectedTrack()), playlist.isSearchResult());
+            handler.playlistLoaded(playlist);
+        }
+
+        @Override
+        public void noMatches()
+        {
+            store(identifier, new Entry(NEGATIVE_TTL_MILLIS, null, null, -1, false, null));
+            handler.noMatches();
+        }
+
+        @Override
+        public void loadFailed(FriendlyException exception)
+        {
+            // anything worse may well work on the next try
+            if(exception.severity == FriendlyException.Severity.COMMON)
+                store(identifier, new Entry(NEGATIVE_TTL_MILLIS, null, null, -1, false,
+                        exception.getMessage() == null ? "Failed to load the track" : exception.getMessage()));
+            handler.loadFailed(exception);
+        }
+
+        private void remember(List<AudioTrack> tracks, String name, int selected, boolean search)
+        {
+            if(holds(identifier))
+                return;
+            try
+            {
+                byte[][] encoded = new byte[tracks.size()][];
+                for(int i=0; i<encoded.length; i++)
+                    encoded[i] = encode(tracks.get(i));
+                Entry entry = new Entry(isSearch(identifier) ? SEARCH_TTL_MILLIS : TTL_MILLIS, encoded, name, selected, search, null);
+                store(identifier, entry);
+                if(disk != null && !isSearch(identifier))
+                    disk.put(keyOf(identifier), write(entry));
+            }
+            catch(IOException | RuntimeException e)
+            {
+                LOGGER.debug("Failed to cache what {} resolved to", identifier, e);
+            }
+        }
+    }
+}
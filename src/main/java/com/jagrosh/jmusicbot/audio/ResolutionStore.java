@@ -0,0 +1,432 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.audio;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps what identifiers resolved to on disk, so the {@link ResolutionCache}
+ * doesn't start cold after a restart.
+ *
+ * The values are appended to a single log file, and an index in memory says
+ * where each key's latest value starts. A key that's written again or
+ * removed leaves its old record behind as garbage, and once there is as much
+ * garbage as live data the log is rewritten with only the live records. If
+ * the live records alone are over the size limit, the oldest are left out.
+ * Records older than a week are ignored, as what a link points to can
+ * change.
+ *
+ * On start the index is rebuilt by reading the log once from start to end,
+ * skipping over the values. A record cut short by a crash ends the log.
+ * Writes and compaction happen on a thread of the store's own; reads happen
+ * on the caller's thread.
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class ResolutionStore
+{
+    private final static Logger LOGGER = LoggerFactory.getLogger(ResolutionStore.class);
+    private final static long MAX_AGE_MILLIS = TimeUnit.DAYS.toMillis(7);
+    // key length, value length (-1 for a removal) and when it was written
+    private final static int HEADER_BYTES = 4 + 4 + 8;
+    private final static int MAX_KEY_BYTES = 64 * 1024;
+    // compacting a log this small isn't worth it
+    private final static long MIN_GARBAGE_BYTES = 1024 * 1024;
+    // after leaving out the oldest records, a compacted log is at most this share of the limit
+    private final static double COMPACTED_SHARE = 0.75;
+    private final static long SHUTDOWN_SECONDS = 5;
+
+    private final Path file;
+    private final long capacity;
+    private final Map<String, Slot> index = new HashMap<>();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r ->
+    {
+        Thread thread = new Thread(r, "resolution-store");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private FileChannel channel;
+    private long end;
+    private long live;
+    private long garbage;
+    private int compactions;
+
+    /**
+     * @param file the log file
+     * @param capacity the most the live records may take up, in bytes
+     */
+    public ResolutionStore(Path file, long capacity)
+    {
+        this.file = file;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Opens the log, rebuilding the index from what an earlier run left.
+     */
+    public synchronized void load()
+    {
+        try
+        {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            long now = System.currentTimeMillis();
+            long offset = 0;
+            if(Files.exists(file))
+            {
+                try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024)))
+                {
+                    while(true)
+                    {
+                        int keyLength, valueLength;
+                        long written;
+                        byte[] key;
+                        try
+                        {
+                            keyLength = in.readInt();
+                            valueLength = in.readInt();
+                            written = in.readLong();
+                            // what's left of a record a crash cut short can read as anything
+                            if(keyLength < 0 || keyLength > MAX_KEY_BYTES || valueLength < -1)
+                                break;
+                            key = new byte[keyLength];
+                            in.readFully(key);
+                            skipFully(in, Math.max(0, valueLength));
+                        }
+                        catch(EOFException e)
+                        {
+                            break;
+                        }
+                        long size = HEADER_BYTES + keyLength + Math.max(0, valueLength);
+                        Slot old;
+                        if(valueLength < 0 || written + MAX_AGE_MILLIS < now)
+                        {
+                            old = index.remove(new String(key, StandardCharsets.UTF_8));
+                            garbage += size;
+                        }
+                        else
+                        {
+                            old = index.put(new String(key, StandardCharsets.UTF_8),
+                                    new Slot(offset, HEADER_BYTES + keyLength, valueLength, written));
+                            live += size;
+                        }
+                        if(old != null)
+                        {
+                            live -= old.size();
+                            garbage += old.size();
+                        }
+                        offset += size;
+                    }
+                }
+            }
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            // drops whatever a crash left half written
+            if(channel.size() > offset)
+            {
+                LOGGER.warn("Dropping {} bytes from the end of the resolution store", channel.size() - offset);
+                channel.truncate(offset);
+            }
+            end = offset;
+        }
+        catch(IOException e)
+        {
+            LOGGER.warn("Failed to open the resolution store", e);
+            return;
+        }
+        LOGGER.info("Loaded {} stored resolutions ({} KB)", index.size(), live / 1024);
+        if(needsCompaction())
+            writer.execute(this::compact);
+    }
+
+    /**
+     * @return the key's value, or null if it isn't stored
+     */
+    public synchronized byte[] get(String key)
+    {
+        Slot slot = index.get(key);
+        if(slot == null || channel == null)
+            return null;
+        if(slot.written + MAX_AGE_MILLIS < System.currentTimeMillis())
+        {
+            remove(key);
+            return null;
+        }
+        try
+        {
+            ByteBuffer value = ByteBuffer.allocate(slot.valueLength);
+            long position = slot.offset + slot.valueOffset;
+            while(value.hasRemaining())
+                if(channel.read(value, position + value.position()) < 0)
+                    throw new EOFException();
+            return value.array();
+        }
+        catch(IOException e)
+        {
+            LOGGER.debug("Failed to read the stored resolution of {}", key, e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores a key's value in the background.
+     */
+    public Future<?> put(String key, byte[] value)
+    {
+        if(HEADER_BYTES + key.length() * 3L + value.length > capacity * COMPACTED_SHARE)
+            return CompletableFuture.completedFuture(null);
+        return writer.submit(() -> append(key, value));
+    }
+
+    /**
+     * Removes a key in the background.
+     */
+    public Future<?> remove(String key)
+    {
+        return writer.submit(() -> append(key, null));
+    }
+
+    public synchronized int getSize()
+    {
+        return index.size();
+    }
+
+    /**
+     * @return how much the live records take up, in bytes
+     */
+    public synchronized long getUsed()
+    {
+        return live;
+    }
+
+    public long getCapacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * @return how much the log takes up, live records and garbage, in bytes
+     */
+    public synchronized long getFileSize()
+    {
+        return end;
+    }
+
+    public synchronized int getCompactions()
+    {
+        return compactions;
+    }
+
+    /**
+     * Stops the writer, once what's already been handed to it is written.
+     */
+    public void shutdown()
+    {
+        writer.shutdown();
+        try
+        {
+            if(!writer.awaitTermination(SHUTDOWN_SECONDS, TimeUnit.SECONDS))
+                LOGGER.warn("Gave up waiting for the resolution store to finish writing");
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void append(String key, byte[] value)
+    {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int valueLength = value == null ? -1 : value.length;
+        long written = System.currentTimeMillis();
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + keyBytes.length + Math.max(0, valueLength));
+        record.putInt(keyBytes.length).putInt(valueLength).putLong(written).put(keyBytes);
+        if(value != null)
+            record.put(value);
+        record.flip();
+        synchronized(this)
+        {
+            if(channel == null || (value == null && !index.containsKey(key)))
+                return;
+            try
+            {
+                long offset = end;
+                while(record.hasRemaining())
+                    offset += channel.write(record, offset);
+                Slot slot = value == null ? index.remove(key)
+                        : index.put(key, new Slot(end, HEADER_BYTES + keyBytes.length, valueLength, written));
+                if(slot != null)
+                {
+                    live -= slot.size();
+                    garbage += slot.size();
+                }
+                if(value == null)
+                    garbage += offset - end;
+                else
+                    live += offset - end;
+                end = offset;
+            }
+            catch(IOException e)
+            {
+                LOGGER.warn("Failed to store the resolution of {}", key, e);
+                return;
+            }
+        }
+        if(needsCompaction())
+            compact();
+    }
+
+    private synchronized boolean needsCompaction()
+    {
+        return live > capacity || (garbage > MIN_GARBAGE_BYTES && garbage > live);
+    }
+
+    // rewrites the log with only its live records, newest last; runs on the writer
+    private void compact()
+    {
+        List<Map.Entry<String, Slot>> slots;
+        synchronized(this)
+        {
+            slots = new ArrayList<>(index.entrySet());
+        }
+        long now = System.currentTimeMillis();
+        slots.removeIf(e -> e.getValue().written + MAX_AGE_MILLIS < now);
+        slots.sort(Comparator.comparingLong(e -> e.getValue().offset));
+        long keep = 0;
+        int first = slots.size();
+        // the newest records that fit in the compacted share of the limit
+        while(first > 0 && keep + slots.get(first - 1).getValue().size() <= capacity * COMPACTED_SHARE)
+            keep += slots.get(--first).getValue().size();
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Map<String, Slot> compacted = new HashMap<>();
+        try(FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            long offset = 0;
+            for(Map.Entry<String, Slot> e : slots.subList(first, slots.size()))
+            {
+                Slot slot = e.getValue();
+                ByteBuffer record = ByteBuffer.allocate((int) slot.size());
+                synchronized(this)
+                {
+                    while(record.hasRemaining())
+                        if(channel.read(record, slot.offset + record.position()) < 0)
+                            throw new EOFException();
+                }
+                record.flip();
+                while(record.hasRemaining())
+                    out.write(record);
+                compacted.put(e.getKey(), new Slot(offset, slot.valueOffset, slot.valueLength, slot.written));
+                offset += slot.size();
+            }
+            out.force(true);
+            synchronized(this)
+            {
+                channel.close();
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                index.clear();
+                index.putAll(compacted);
+                end = offset;
+                live = offset;
+                garbage = 0;
+                compactions++;
+            }
+            LOGGER.debug("Compacted the resolution store to {} records, leaving out {}", compacted.size(), first);
+        }
+        catch(IOException e)
+        {
+            LOGGER.warn("Failed to compact the resolution store", e);
+            synchronized(this)
+            {
+                // if the move failed after closing, the old log is still there
+                if(!channel.isOpen())
+                    reopen();
+            }
+        }
+    }
+
+    private void reopen()
+    {
+        try
+        {
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        catch(IOException e)
+        {
+            LOGGER.warn("Failed to reopen the resolution store", e);
+            channel = null;
+        }
+    }
+
+    private static void skipFully(InputStream in, long bytes) throws IOException
+    {
+        while(bytes > 0)
+        {
+            long skipped = in.skip(bytes);
+            if(skipped <= 0)
+            {
+                if(in.read() < 0)
+                    throw new EOFException();
+                skipped = 1;
+            }
+            bytes -= skipped;
+        }
+    }
+
+    // where a key's latest record is in the log
+    private static class Slot
+    {
+        private final long offset;
+        private final int valueOffset;
+        private final int valueLength;
+        private final long written;
+
+        private Slot(long offset, int valueOffset, int valueLength, long written)
+        {
+            this.offset = offset;
+            this.valueOffset = valueOffset;
+            this.valueLength = valueLength;
+            this.written = written;
+        }
+
+        private long size()
+        {
+            return valueOffset + valueLength;
+        }
+    }
+}
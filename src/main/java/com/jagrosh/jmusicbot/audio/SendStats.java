@@ -0,0 +1,303 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.audio;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts how well a guild's audio is being sent, over a rolling window of the
+ * last few minutes: how many frames went out, how many times a playing track
+ * had no frame ready (an underrun), the longest run of underruns in a row,
+ * a histogram of the time between the send loop's calls, and the silence
+ * between one track and the next.
+ *
+ * Underruns point at the source or the decoder falling behind, while uneven
+ * intervals point at the send loop itself. Only the audio send thread records
+ * into the stats, with no locking and no allocation; readers add the buckets
+ * up without locking either, so a summary can be a frame or so out of date.
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class SendStats
+{
+    // upper bounds of the interval histogram's buckets, in milliseconds; the
+    // send loop aims for 20, and the last bucket takes everything above 100
+    public final static long[] INTERVAL_BOUNDS = {15, 25, 40, 60, 100};
+    public final static long WINDOW = TimeUnit.MINUTES.toMillis(5);
+    private final static long FRAME_MILLIS = 20;
+    private final static int BUCKETS = 10;
+    private final static long BUCKET_NANOS = TimeUnit.MILLISECONDS.toNanos(WINDOW) / BUCKETS;
+
+    private final Bucket[] buckets = new Bucket[BUCKETS];
+    private int current;
+    private long currentStart;
+    private long lastCall;
+    private int gap;
+
+    public SendStats()
+    {
+        for(int i=0; i<BUCKETS; i++)
+            buckets[i] = new Bucket();
+        currentStart = System.nanoTime();
+    }
+
+    /**
+     * Records one call of the send loop.
+     *
+     * @param provided whether a frame was ready
+     * @param playing whether a track was playing and not paused, so a frame
+     *                should have been ready
+     */
+    public void record(boolean provided, boolean playing)
+    {
+        long now = System.nanoTime();
+        roll(now);
+        Bucket bucket = buckets[current];
+        if(!provided && !playing)
+        {
+            // nothing to send; don't count the idle time as a gap between frames
+            lastCall = 0;
+            gap = 0;
+            return;
+        }
+        if(lastCall != 0)
+            bucket.intervals[intervalBucket(now - lastCall)]++;
+        lastCall = now;
+        if(provided)
+        {
+            bucket.frames++;
+            gap = 0;
+        }
+        else
+        {
+            bucket.underruns++;
+            gap++;
+            if(gap > bucket.longestGap)
+                bucket.longestGap = gap;
+        }
+    }
+
+    /**
+     * Records the silence between one track ending and the next one's first
+     * frame going out.
+     *
+     * @param prefetched whether the next track had been loaded ahead of time
+     */
+    public void recordTransition(long nanos, boolean prefetched)
+    {
+        roll(System.nanoTime());
+        Bucket bucket = buckets[current];
+        bucket.transitions[prefetched ? 1 : 0]++;
+        bucket.transitionNanos[prefetched ? 1 : 0] += nanos;
+    }
+
+    /**
+     * @return the counts over the rolling window
+     */
+    public Summary getSummary()
+    {
+        long now = System.nanoTime();
+        Summary summary = new Summary();
+        for(int i=0; i<BUCKETS; i++)
+        {
+            // a bucket the send loop hasn't rolled into lately holds old counts
+            int age = (current - i + BUCKETS) % BUCKETS;
+            if(now - currentStart + age * BUCKET_NANOS >= BUCKETS * BUCKET_NANOS)
+                continue;
+            Bucket bucket = buckets[i];
+            summary.frames += bucket.frames;
+            summary.underruns += bucket.underruns;
+            summary.longestGap = Math.max(summary.longestGap, bucket.longestGap);
+            for(int j=0; j<summary.intervals.length; j++)
+                summary.intervals[j] += bucket.intervals[j];
+            for(int j=0; j<2; j++)
+            {
+                summary.transitions[j] += bucket.transitions[j];
+                summary.transitionNanos[j] += bucket.transitionNanos[j];
+            }
+        }
+        return summary;
+    }
+
+    private void roll(long now)
+    {
+        long elapsed = (now - currentStart) / BUCKET_NANOS;
+        if(elapsed == 0)
+            return;
+        for(long i=0; i<Math.min(elapsed, BUCKETS); i++)
+        {
+            current = (current + 1) % BUCKETS;
+            buckets[current].reset();
+        }
+        currentStart += elapsed * BUCKET_NANOS;
+    }
+
+    private static int intervalBucket(long nanos)
+    {
+        long millis = nanos / 1_000_000;
+        int i = 0;
+        while(i < INTERVAL_BOUNDS.length && millis >= INTERVAL_BOUNDS[i])
+            i++;
+        return i;
+    }
+
+    private static class Bucket
+    {
+        private long frames;
+        private long underruns;
+        private int longestGap;
+        private final long[] intervals = new long[INTERVAL_BOUNDS.length + 1];
+        // indexed by whether the next track was prefetched
+        private final long[] transitions = new long[2];
+        private final long[] transitionNanos = new long[2];
+
+        private void reset()
+        {
+            frames = underruns = 0;
+            longestGap = 0;
+            Arrays.fill(intervals, 0);
+            Arrays.fill(transitions, 0);
+            Arrays.fill(transitionNanos, 0);
+        }
+    }
+
+    /**
+     * The counts of one guild over the window, or of several added together.
+     */
+    public static class Summary
+    {
+        private long frames;
+        private long underruns;
+        private int longestGap;
+        private final long[] intervals = new long[INTERVAL_BOUNDS.length + 1];
+        private final long[] transitions = new long[2];
+        private final long[] transitionNanos = new long[2];
+
+        public long getFrames()
+        {
+            return frames;
+        }
+
+        public long getUnderruns()
+        {
+            return underruns;
+        }
+
+        /**
+         * @return the most underruns in a row, each one a missed 20ms frame
+         */
+        public int getLongestGap()
+        {
+            return longestGap;
+        }
+
+        public long getLongestGapMillis()
+        {
+            return longestGap * FRAME_MILLIS;
+        }
+
+        /**
+         * @return how many calls of the send loop came this long after the
+         *         previous one, bucketed by {@link SendStats#INTERVAL_BOUNDS}
+         */
+        public long[] getIntervals()
+        {
+            return intervals.clone();
+        }
+
+        /**
+         * @return the share of the frames a playing track should have sent
+         *         that weren't ready, from 0 to 1
+         */
+        public double getUnderrunRatio()
+        {
+            return frames + underruns == 0 ? 0 : (double) underruns / (frames + underruns);
+        }
+
+        /**
+         * @param prefetched whether to count the tracks that were loaded ahead
+         *                   of time, or the ones that were started cold
+         */
+        public long getTransitions(boolean prefetched)
+        {
+            return transitions[prefetched ? 1 : 0];
+        }
+
+        /**
+         * @param prefetched whether to count the tracks that were loaded ahead
+         *                   of time, or the ones that were started cold
+         * @return the average silence between tracks in milliseconds, or -1
+         *         if there were no such transitions
+         */
+        public long getAverageTransitionMillis(boolean prefetched)
+        {
+            int i = prefetched ? 1 : 0;
+            return transitions[i] == 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(transitionNanos[i] / transitions[i]);
+        }
+
+        public void add(Summary other)
+        {
+            frames += other.frames;
+            underruns += other.underruns;
+            longestGap = Math.max(longestGap, other.longestGap);
+            for(int i=0; i<intervals.length; i++)
+                intervals[i] += other.intervals[i];
+            for(int i=0; i<2; i++)
+            {
+                transitions[i] += other.transitions[i];
+                transitionNanos[i] += other.transitionNanos[i];
+            }
+        }
+
+        /**
+         * @return the average gaps between tracks, like
+         *         "25ms prefetched (12), 840ms cold (3)"
+         */
+        public String formatTransitions()
+        {
+            return formatTransitions(true) + ", " + formatTransitions(false);
+        }
+
+        private String formatTransitions(boolean prefetched)
+        {
+            long average = getAverageTransitionMillis(prefetched);
+            return (average < 0 ? "-" : average + "ms") + (prefetched ? " prefetched (" : " cold (") + getTransitions(prefetched) + ")";
+        }
+
+        /**
+         * @return the histogram as lines like "15-25ms: 1234 (98.1%)"
+         */
+        public String formatIntervals()
+        {
+            long total = 0;
+            for(long count : intervals)
+                total += count;
+            StringBuilder sb = new StringBuilder();
+            for(int i=0; i<intervals.length; i++)
+            {
+                if(i > 0)
+                    sb.append("\n");
+                sb.append(i == 0 ? "<" + INTERVAL_BOUNDS[0]
+                        : i == INTERVAL_BOUNDS.length ? ">=" + INTERVAL_BOUNDS[i-1]
+                        : INTERVAL_BOUNDS[i-1] + "-" + INTERVAL_BOUNDS[i])
+                        .append("ms: ").append(intervals[i])
+                        .append(String.format(" (%.1f%%)", total == 0 ? 0.0 : 100.0 * intervals[i] / total));
+            }
+            return sb.toString();
+        }
+    }
+}
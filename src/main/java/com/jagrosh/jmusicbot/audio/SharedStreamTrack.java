@@ -0,0 +1,110 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.audio;
+
+import com.sedmelluq.discord.lavaplayer.source.AudioSourceManager;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.DelegatedAudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.InternalAudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.playback.AudioFrame;
+import com.sedmelluq.discord.lavaplayer.track.playback.AudioFrameBuffer;
+import com.sedmelluq.discord.lavaplayer.track.playback.LocalAudioTrackExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A live stream played from a {@link StreamBroadcaster} broadcast rather than
+ * decoded by this guild itself. It looks like the stream to everything else,
+ * and clones back into the stream, so repeating it starts a fresh broadcast
+ * if the old one has ended.
+ *
+ * The frames are already Opus, so the guild's volume doesn't apply to them.
+ * Once the volume is changed, the guild leaves the broadcast and decodes the
+ * stream itself from then on.
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class SharedStreamTrack extends DelegatedAudioTrack
+{
+    // how much of the broadcast's recent audio a guild starts with, in frames
+    private final static int JOIN_FRAMES = 25;
+    private final static long WAIT_MILLIS = 5;
+    private final static int DEFAULT_VOLUME = 100;
+
+    private final StreamBroadcaster broadcaster;
+    private final AudioTrack stream;
+
+    public SharedStreamTrack(StreamBroadcaster broadcaster, AudioTrack stream)
+    {
+        super(stream.getInfo());
+        this.broadcaster = broadcaster;
+        this.stream = stream;
+    }
+
+    @Override
+    public void process(LocalAudioTrackExecutor executor) throws Exception
+    {
+        AtomicInteger volume = executor.getProcessingContext().playerOptions.volumeLevel;
+        boolean[] left = {false};
+        StreamBroadcaster.Broadcast broadcast = broadcaster.acquire(stream);
+        try
+        {
+            FrameRing<AudioFrame> ring = broadcast.getRing();
+            FrameRing<AudioFrame>.Cursor cursor = ring.cursor(JOIN_FRAMES);
+            AudioFrameBuffer buffer = executor.getProcessingContext().frameBuffer;
+            executor.executeProcessingLoop(() ->
+            {
+                while(true)
+                {
+                    if(volume.get() != DEFAULT_VOLUME)
+                    {
+                        left[0] = true;
+                        return;
+                    }
+                    // checked first, so every frame published before the end is still read
+                    boolean finished = ring.isFinished();
+                    AudioFrame frame = cursor.next();
+                    if(frame != null)
+                        buffer.consume(frame);
+                    else if(finished)
+                        break;
+                    else
+                        Thread.sleep(WAIT_MILLIS);
+                }
+                if(broadcast.getFailure() != null)
+                    throw broadcast.getFailure();
+            }, position -> {}, false);
+        }
+        finally
+        {
+            broadcaster.release(broadcast);
+        }
+        // the frames already buffered play out while the stream connects
+        if(left[0])
+            processDelegate((InternalAudioTrack) stream.makeClone(), executor);
+    }
+
+    @Override
+    public AudioSourceManager getSourceManager()
+    {
+        return stream.getSourceManager();
+    }
+
+    @Override
+    protected AudioTrack makeShallowClone()
+    {
+        return stream.makeClone();
+    }
+}
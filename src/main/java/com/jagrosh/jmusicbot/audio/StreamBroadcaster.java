@@ -0,0 +1,224 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.audio;
+
+import com.sedmelluq.discord.lavaplayer.format.StandardAudioDataFormats;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.player.event.AudioEventAdapter;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.playback.AudioFrame;
+import com.sedmelluq.discord.lavaplayer.track.playback.ImmutableAudioFrame;
+import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shares one decode of a live stream between every guild playing it.
+ *
+ * The first guild to play a stream starts a broadcast: a player of its own
+ * that decodes the stream, and a thread that moves its Opus frames into a
+ * {@link FrameRing} in real time. Each guild then plays a
+ * {@link SharedStreamTrack}, which reads the ring into that guild's own
+ * frame buffer. Guilds join near the live edge and leave whenever they like;
+ * the broadcast only stops once the last one has left, or the stream ends.
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class StreamBroadcaster
+{
+    private final static Logger LOGGER = LoggerFactory.getLogger(StreamBroadcaster.class);
+    // about ten seconds of frames
+    private final static int RING_FRAMES = 512;
+    private final static long FRAME_NANOS = TimeUnit.MILLISECONDS.toNanos(StandardAudioDataFormats.DISCORD_OPUS.frameDuration());
+    // how far behind real time the broadcast may fall before it stops trying to catch up
+    private final static long MAX_LAG_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final PlayerManager manager;
+    private final Map<String, Broadcast> broadcasts = new HashMap<>();
+
+    public StreamBroadcaster(PlayerManager manager)
+    {
+        this.manager = manager;
+    }
+
+    /**
+     * @param stream a live stream track
+     * @return a track that plays the stream through a broadcast shared with
+     *         every other guild playing it
+     */
+    public AudioTrack share(AudioTrack stream)
+    {
+        SharedStreamTrack track = new SharedStreamTrack(this, stream);
+        track.setUserData(stream.getUserData());
+        return track;
+    }
+
+    /**
+     * @return how many streams are being broadcast
+     */
+    public synchronized int getBroadcasts()
+    {
+        return broadcasts.size();
+    }
+
+    /**
+     * @return how many guilds are listening to a broadcast, across all of them
+     */
+    public synchronized int getListeners()
+    {
+        int listeners = 0;
+        for(Broadcast broadcast : broadcasts.values())
+            listeners += broadcast.listeners;
+        return listeners;
+    }
+
+    synchronized Broadcast acquire(AudioTrack stream)
+    {
+        String key = keyOf(stream);
+        Broadcast broadcast = broadcasts.get(key);
+        if(broadcast == null || broadcast.ring.isFinished())
+        {
+            broadcast = new Broadcast(key, stream.makeClone());
+            broadcasts.put(key, broadcast);
+            broadcast.start();
+        }
+        broadcast.listeners++;
+        return broadcast;
+    }
+
+    synchronized void release(Broadcast broadcast)
+    {
+        broadcast.listeners--;
+        if(broadcast.listeners == 0)
+        {
+            broadcasts.remove(broadcast.key, broadcast);
+            broadcast.stop();
+        }
+    }
+
+    private static String keyOf(AudioTrack stream)
+    {
+        if(stream.getSourceManager() == null)
+            return stream.getIdentifier();
+        return stream.getSourceManager().getSourceName() + ":" + stream.getIdentifier();
+    }
+
+    /**
+     * One stream being decoded for every guild listening to it.
+     */
+    class Broadcast extends AudioEventAdapter
+    {
+        private final String key;
+        private final AudioTrack stream;
+        private final FrameRing<AudioFrame> ring = new FrameRing<>(RING_FRAMES);
+        private final AudioPlayer player;
+        private final Thread thread;
+        private volatile FriendlyException failure;
+        private volatile boolean stopped;
+        // guarded by the broadcaster
+        private int listeners;
+
+        private Broadcast(String key, AudioTrack stream)
+        {
+            this.key = key;
+            this.stream = stream;
+            this.player = manager.createPlayer();
+            this.thread = new Thread(this::pump, "broadcast " + key);
+            thread.setDaemon(true);
+            player.addListener(this);
+        }
+
+        FrameRing<AudioFrame> getRing()
+        {
+            return ring;
+        }
+
+        /**
+         * @return why the stream stopped, if it broke rather than ended
+         */
+        FriendlyException getFailure()
+        {
+            return failure;
+        }
+
+        private void start()
+        {
+            player.playTrack(stream);
+            thread.start();
+        }
+
+        private void stop()
+        {
+            stopped = true;
+            thread.interrupt();
+        }
+
+        @Override
+        public void onTrackException(AudioPlayer player, AudioTrack track, FriendlyException exception)
+        {
+            failure = exception;
+        }
+
+        // copies the player's frames into the ring, no faster than real time
+        // so that listeners aren't lapped by a burst of buffered audio
+        private void pump()
+        {
+            MutableAudioFrame frame = new MutableAudioFrame();
+            frame.setBuffer(ByteBuffer.allocate(StandardAudioDataFormats.DISCORD_OPUS.maximumChunkSize()));
+            long next = System.nanoTime();
+            try
+            {
+                while(!stopped && player.getPlayingTrack() != null)
+                {
+                    try
+                    {
+                        if(!player.provide(frame, FRAME_NANOS * 5, TimeUnit.NANOSECONDS))
+                            continue;
+                    }
+                    catch(TimeoutException e)
+                    {
+                        continue;
+                    }
+                    ring.publish(new ImmutableAudioFrame(frame.getTimecode(), frame.getData(), frame.getVolume(), frame.getFormat()));
+                    long now = System.nanoTime();
+                    next = Math.max(next + FRAME_NANOS, now - MAX_LAG_NANOS);
+                    if(next > now)
+                        LockSupport.parkNanos(next - now);
+                }
+            }
+            catch(InterruptedException e)
+            {
+                // stopped by the last listener leaving
+            }
+            catch(Exception e)
+            {
+                LOGGER.warn("Broadcast of {} failed", key, e);
+            }
+            finally
+            {
+                ring.finish();
+                player.destroy();
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.audio;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import net.dv8tion.jda.api.audio.factory.IAudioSendFactory;
+import net.dv8tion.jda.api.audio.factory.IAudioSendSystem;
+import net.dv8tion.jda.api.audio.factory.IPacketProvider;
+import net.dv8tion.jda.api.audio.hooks.ConnectionStatus;
+import net.dv8tion.jda.api.entities.VoiceChannel;
+
+/**
+ * Wraps another send factory, such as JDA's default one, to record when its
+ * packets go out in {@link PacketTimings}. The packets are timed as they are
+ * handed over, which for JDA's send system is just before it sends them.
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class TimedSendFactory implements IAudioSendFactory
+{
+    private final IAudioSendFactory factory;
+    private final PacketTimings timings;
+
+    public TimedSendFactory(IAudioSendFactory factory, PacketTimings timings)
+    {
+        this.factory = factory;
+        this.timings = timings;
+    }
+
+    @Override
+    public IAudioSendSystem createSendSystem(IPacketProvider packetProvider)
+    {
+        return factory.createSendSystem(new TimedPacketProvider(packetProvider));
+    }
+
+    private class TimedPacketProvider implements IPacketProvider
+    {
+        private final IPacketProvider provider;
+        private long lastPacket;
+
+        private TimedPacketProvider(IPacketProvider provider)
+        {
+            this.provider = provider;
+        }
+
+        @Override
+        public String getIdentifier()
+        {
+            return provider.getIdentifier();
+        }
+
+        @Override
+        public VoiceChannel getConnectedChannel()
+        {
+            return provider.getConnectedChannel();
+        }
+
+        @Override
+        public DatagramSocket getUdpSocket()
+        {
+            return provider.getUdpSocket();
+        }
+
+        @Override
+        public InetSocketAddress getSocketAddress()
+        {
+            return provider.getSocketAddress();
+        }
+
+        @Override
+        public ByteBuffer getNextPacketRaw(boolean changeTalking)
+        {
+            ByteBuffer packet = provider.getNextPacketRaw(changeTalking);
+            lastPacket = packet == null ? 0 : timings.record(lastPacket);
+            return packet;
+        }
+
+        @Override
+        public DatagramPacket getNextPacket(boolean changeTalking)
+        {
+            DatagramPacket packet = provider.getNextPacket(changeTalking);
+            lastPacket = packet == null ? 0 : timings.record(lastPacket);
+            return packet;
+        }
+
+        @Override
+        public void onConnectionError(ConnectionStatus status)
+        {
+            provider.onConnectionError(status);
+        }
+
+        @Override
+        public void onConnectionLost()
+        {
+            provider.onConnectionLost();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.commands.admin;
+
+import com.jagrosh.jdautilities.command.CommandEvent;
+import com.jagrosh.jmusicbot.Bot;
+import com.jagrosh.jmusicbot.commands.AdminCommand;
+import com.jagrosh.jmusicbot.settings.Settings;
+
+/**
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class DuplicatesCmd extends AdminCommand
+{
+    public DuplicatesCmd(Bot bot)
+    {
+        this.name = "noduplicates";
+        this.help = "skips tracks that are already in the queue";
+        this.arguments = "[on|off]";
+        this.aliases = bot.getConfig().getAliases(this.name);
+    }
+
+    @Override
+    protected void execute(CommandEvent event)
+    {
+        String args = event.getArgs();
+        boolean value;
+        Settings settings = event.getClient().getSettingsFor(event.getGuild());
+        if(args.isEmpty())
+            value = !settings.isSkipDuplicates();
+        else if(args.equalsIgnoreCase("true") || args.equalsIgnoreCase("on"))
+            value = true;
+        else if(args.equalsIgnoreCase("false") || args.equalsIgnoreCase("off"))
+            value = false;
+        else
+        {
+            event.replyError("Valid options are `on` or `off` (or leave empty to toggle)");
+            return;
+        }
+        settings.setSkipDuplicates(value);
+        event.replySuccess(value
+                ? "Tracks that are already in the queue will now be skipped"
+                : "Tracks can now be queued more than once");
+    }
+}
@@ -78,7 +78,8 @@ public class ForceRemoveCmd extends DJCommand
             for(int i=0; i<found.size() && i<4; i++)
             {
                 Member member = found.get(i);
-                builder.addChoice("**"+member.getUser().getName()+"**#"+member.getUser().getDiscriminator());
+                builder.addChoice("**"+member.getUser().getName()+"**#"+member.getUser().getDiscriminator()
+                        +" ("+handler.getQueue().count(member.getIdLong())+" queued)");
             }
 
             builder
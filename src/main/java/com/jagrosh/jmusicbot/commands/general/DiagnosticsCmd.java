@@ -0,0 +1,64 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.commands.general;
+
+import com.jagrosh.jdautilities.command.Command;
+import com.jagrosh.jdautilities.command.CommandEvent;
+import com.jagrosh.jmusicbot.Bot;
+import com.jagrosh.jmusicbot.audio.AudioHandler;
+import com.jagrosh.jmusicbot.audio.SendStats;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class DiagnosticsCmd extends Command
+{
+    public DiagnosticsCmd(Bot bot)
+    {
+        this.name = "diagnostics";
+        this.help = "shows how smoothly audio is being sent in this server";
+        this.aliases = bot.getConfig().getAliases(this.name);
+        this.guildOnly = true;
+    }
+
+    @Override
+    protected void execute(CommandEvent event)
+    {
+        if(!(event.getGuild().getAudioManager().getSendingHandler() instanceof AudioHandler))
+        {
+            event.replyWarning("Nothing has been played in this server yet.");
+            return;
+        }
+        AudioHandler handler = (AudioHandler)event.getGuild().getAudioManager().getSendingHandler();
+        SendStats.Summary stats = handler.getSendStats().getSummary();
+        StringBuilder sb = new StringBuilder();
+        sb.append("Audio over the last ").append(TimeUnit.MILLISECONDS.toMinutes(SendStats.WINDOW)).append(" minutes:")
+                .append("\n```")
+                .append("\nFrames Sent = ").append(stats.getFrames())
+                .append("\nUnderruns = ").append(stats.getUnderruns())
+                .append(String.format(" (%.2f%%)", 100 * stats.getUnderrunRatio()))
+                .append("\nLongest Gap = ").append(stats.getLongestGapMillis()).append("ms")
+                .append("\nTrack Gaps = ").append(stats.formatTransitions())
+                .append("\nSend Intervals:\n  ").append(stats.formatIntervals().replace("\n", "\n  "))
+                .append("\n```");
+        if(stats.getUnderruns() > 0)
+            sb.append("\nUnderruns mean the track couldn't be loaded or decoded fast enough; "
+                    + "intervals far from 20ms mean the bot itself is falling behind.");
+        event.reply(sb.toString());
+    }
+}
@@ -32,7 +32,10 @@ import com.jagrosh.jmusicbot.commands.DJCommand;
 import com.jagrosh.jmusicbot.commands.MusicCommand;
 import com.jagrosh.jmusicbot.playlist.PlaylistLoader.Playlist;
 import com.jagrosh.jmusicbot.utils.FormatUtil;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.exceptions.PermissionException;
@@ -115,6 +118,11 @@ public class PlayCmd extends MusicCommand
             }
             AudioHandler handler = (AudioHandler)event.getGuild().getAudioManager().getSendingHandler();
             int pos = handler.addTrack(new QueuedTrack(track, RequestMetadata.fromResultHandler(track, event)))+1;
+            if(pos==AudioHandler.DUPLICATE+1)
+            {
+                m.editMessage(FormatUtil.filter(event.getClient().getWarning()+" **"+track.getInfo().title+"** is already in the queue.")).queue();
+                return;
+            }
             String addMsg = FormatUtil.filter(event.getClient().getSuccess()+" Added **"+track.getInfo().title
                     +"** (`"+ TimeUtil.formatTime(track.getDuration())+"`) "+(pos==0?"to begin playing":" to the queue at position "+pos));
             if(playlist==null || !event.getSelfMember().hasPermission(event.getTextChannel(), Permission.MESSAGE_ADD_REACTION))
@@ -129,7 +137,12 @@ public class PlayCmd extends MusicCommand
                         .setAction(re ->
                         {
                             if(re.getName().equals(LOAD))
-                                m.editMessage(addMsg+"\n"+event.getClient().getSuccess()+" Loaded **"+loadPlaylist(playlist, track)+"** additional tracks!").queue();
+                            {
+                                int[] positions = loadPlaylist(playlist, track);
+                                int duplicates = AudioHandler.countDuplicates(positions);
+                                m.editMessage(addMsg+"\n"+event.getClient().getSuccess()+" Loaded **"+(positions.length-duplicates)+"** additional tracks!"
+                                        + duplicatesMessage(duplicates)).queue();
+                            }
                             else
                                 m.editMessage(addMsg).queue();
                         }).setFinalAction(m ->
@@ -139,18 +152,20 @@ public class PlayCmd extends MusicCommand
             }
         }
         
-        private int loadPlaylist(AudioPlaylist playlist, AudioTrack exclude)
+        // returns the queue position of each track that wasn't too long
+        private int[] loadPlaylist(AudioPlaylist playlist, AudioTrack exclude)
         {
-            int[] count = {0};
-            playlist.getTracks().stream().forEach((track) -> {
-                if(!bot.getConfig().isTooLong(track) && !track.equals(exclude))
-                {
-                    AudioHandler handler = (AudioHandler)event.getGuild().getAudioManager().getSendingHandler();
-                    handler.addTrack(new QueuedTrack(track, RequestMetadata.fromResultHandler(track, event)));
-                    count[0]++;
-                }
-            });
-            return count[0];
+            List<QueuedTrack> tracks = playlist.getTracks().stream()
+                    .filter(track -> !bot.getConfig().isTooLong(track) && !track.equals(exclude))
+                    .map(track -> new QueuedTrack(track, RequestMetadata.fromResultHandler(track, event)))
+                    .collect(Collectors.toList());
+            AudioHandler handler = (AudioHandler)event.getGuild().getAudioManager().getSendingHandler();
+            return handler.addTracks(tracks);
+        }
+        
+        private String duplicatesMessage(int duplicates)
+        {
+            return duplicates==0 ? "" : "\n"+event.getClient().getWarning()+" Skipped **"+duplicates+"** tracks that were already in the queue.";
         }
         
         @Override
@@ -174,13 +189,14 @@ public class PlayCmd extends MusicCommand
             }
             else
             {
-                int count = loadPlaylist(playlist, null);
+                int[] positions = loadPlaylist(playlist, null);
+                int duplicates = AudioHandler.countDuplicates(positions);
                 if(playlist.getTracks().size() == 0)
                 {
                     m.editMessage(FormatUtil.filter(event.getClient().getWarning()+" The playlist "+(playlist.getName()==null ? "" : "(**"+playlist.getName()
                             +"**) ")+" could not be loaded or contained 0 entries")).queue();
                 }
-                else if(count==0)
+                else if(positions.length==0)
                 {
                     m.editMessage(FormatUtil.filter(event.getClient().getWarning()+" All entries in this playlist "+(playlist.getName()==null ? "" : "(**"+playlist.getName()
                             +"**) ")+"were longer than the allowed maximum (`"+bot.getConfig().getMaxTime()+"`)")).queue();
@@ -190,8 +206,9 @@ public class PlayCmd extends MusicCommand
                     m.editMessage(FormatUtil.filter(event.getClient().getSuccess()+" Found "
                             +(playlist.getName()==null?"a playlist":"playlist **"+playlist.getName()+"**")+" with `"
                             + playlist.getTracks().size()+"` entries; added to the queue!"
-                            + (count<playlist.getTracks().size() ? "\n"+event.getClient().getWarning()+" Tracks longer than the allowed maximum (`"
-                            + bot.getConfig().getMaxTime()+"`) have been omitted." : ""))).queue();
+                            + (positions.length<playlist.getTracks().size() ? "\n"+event.getClient().getWarning()+" Tracks longer than the allowed maximum (`"
+                            + bot.getConfig().getMaxTime()+"`) have been omitted." : "")
+                            + duplicatesMessage(duplicates))).queue();
                 }
             }
         }
@@ -245,10 +262,15 @@ public class PlayCmd extends MusicCommand
             event.getChannel().sendMessage(loadingEmoji+" Loading playlist **"+event.getArgs()+"**... ("+playlist.getItems().size()+" items)").queue(m -> 
             {
                 AudioHandler handler = (AudioHandler)event.getGuild().getAudioManager().getSendingHandler();
-                playlist.loadTracks(bot.getPlayerManager(), (at)->handler.addTrack(new QueuedTrack(at, RequestMetadata.fromResultHandler(at, event))), () -> {
+                AtomicInteger duplicates = new AtomicInteger();
+                playlist.loadTrackBatches(bot.getPlayerManager(), (batch)->duplicates.addAndGet(AudioHandler.countDuplicates(handler.addTracks(batch.stream()
+                        .map(at -> new QueuedTrack(at, RequestMetadata.fromResultHandler(at, event)))
+                        .collect(Collectors.toList())))), () -> {
                     StringBuilder builder = new StringBuilder(playlist.getTracks().isEmpty() 
                             ? event.getClient().getWarning()+" No tracks were loaded!" 
-                            : event.getClient().getSuccess()+" Loaded **"+playlist.getTracks().size()+"** tracks!");
+                            : event.getClient().getSuccess()+" Loaded **"+(playlist.getTracks().size()-duplicates.get())+"** tracks!");
+                    if(duplicates.get()>0)
+                        builder.append("\n").append(event.getClient().getWarning()).append(" Skipped **").append(duplicates.get()).append("** tracks that were already in the queue.");
                     if(!playlist.getErrors().isEmpty())
                         builder.append("\nThe following tracks failed to load:");
                     playlist.getErrors().forEach(err -> builder.append("\n`[").append(err.getIndex()+1).append("]` **").append(err.getItem()).append("**: ").append(err.getReason()));
@@ -15,7 +15,6 @@
  */
 package com.jagrosh.jmusicbot.commands.music;
 
-import java.util.List;
 import java.util.concurrent.TimeUnit;
 import com.jagrosh.jdautilities.command.CommandEvent;
 import com.jagrosh.jdautilities.menu.Paginator;
@@ -23,6 +22,8 @@ import com.jagrosh.jmusicbot.Bot;
 import com.jagrosh.jmusicbot.audio.AudioHandler;
 import com.jagrosh.jmusicbot.audio.QueuedTrack;
 import com.jagrosh.jmusicbot.commands.MusicCommand;
+import com.jagrosh.jmusicbot.queue.AbstractQueue;
+import com.jagrosh.jmusicbot.queue.QueueSnapshot;
 import com.jagrosh.jmusicbot.settings.QueueType;
 import com.jagrosh.jmusicbot.settings.RepeatMode;
 import com.jagrosh.jmusicbot.settings.Settings;
@@ -72,7 +73,7 @@ public class QueueCmd extends MusicCommand
         }
         catch(NumberFormatException ignore){}
         AudioHandler ah = (AudioHandler)event.getGuild().getAudioManager().getSendingHandler();
-        List<QueuedTrack> list = ah.getQueue().getList();
+        QueueSnapshot<QueuedTrack> list = ah.getQueue().snapshot();
         if(list.isEmpty())
         {
             Message nowp = ah.getNowPlaying(event.getJDA());
@@ -88,15 +89,23 @@ public class QueueCmd extends MusicCommand
             return;
         }
         String[] songs = new String[list.size()];
-        long total = 0;
-        for(int i=0; i<list.size(); i++)
+        int i = 0;
+        long eta = ah.getTimeUntil(list, 0);
+        for(QueuedTrack track : list)
         {
-            total += list.get(i).getTrack().getDuration();
-            songs[i] = list.get(i).toString();
+            songs[i++] = track + " | in `" + TimeUtil.formatWait(eta) + "`";
+            if(eta != Long.MAX_VALUE)
+                eta = track.getDuration() == Long.MAX_VALUE ? Long.MAX_VALUE : eta + track.getDuration();
         }
         Settings settings = event.getClient().getSettingsFor(event.getGuild());
-        long fintotal = total;
-        builder.setText((i1,i2) -> getQueueTitle(ah, event.getClient().getSuccess(), songs.length, fintotal, settings.getRepeatMode(), settings.getQueueType()))
+        AbstractQueue<QueuedTrack> queue = ah.getQueue();
+        String total = TimeUtil.formatTime(list.getDuration(), list.getLiveCount());
+        long user = event.getAuthor().getIdLong();
+        long next = ah.getTimeUntilNext(user);
+        String yours = next < 0 ? null : queue.count(user) + " yours (`" 
+                + TimeUtil.formatTime(queue.getDuration(user), queue.getLiveCount(user)) + "`), next in `" 
+                + TimeUtil.formatWait(next) + "`";
+        builder.setText((i1,i2) -> getQueueTitle(ah, event.getClient().getSuccess(), songs.length, total, yours, settings.getRepeatMode(), settings.getQueueType()))
                 .setItems(songs)
                 .setUsers(event.getAuthor())
                 .setColor(event.getSelfMember().getColor())
@@ -104,7 +113,7 @@ public class QueueCmd extends MusicCommand
         builder.build().paginate(event.getChannel(), pagenum);
     }
     
-    private String getQueueTitle(AudioHandler ah, String success, int songslength, long total, RepeatMode repeatmode, QueueType queueType)
+    private String getQueueTitle(AudioHandler ah, String success, int songslength, String total, String yours, RepeatMode repeatmode, QueueType queueType)
     {
         StringBuilder sb = new StringBuilder();
         if(ah.getPlayer().getPlayingTrack()!=null)
@@ -113,7 +122,8 @@ public class QueueCmd extends MusicCommand
                     .append(ah.getPlayer().getPlayingTrack().getInfo().title).append("**\n");
         }
         return FormatUtil.filter(sb.append(success).append(" Current Queue | ").append(songslength)
-                .append(" entries | `").append(TimeUtil.formatTime(total)).append("` ")
+                .append(" entries | `").append(total).append("` ")
+                .append(yours != null ? "| "+yours+" " : "")
                 .append("| ").append(queueType.getEmoji()).append(" `").append(queueType.getUserFriendlyName()).append('`')
                 .append(repeatmode.getEmoji() != null ? " | "+repeatmode.getEmoji() : "").toString());
     }
@@ -83,7 +83,7 @@ public class SeekCmd extends MusicCommand
         
         try
         {
-            playingTrack.setPosition(seekMilliseconds);
+            handler.seek(seekMilliseconds);
         }
         catch (Exception e)
         {
@@ -91,6 +91,6 @@ public class SeekCmd extends MusicCommand
             LOG.warn("Failed to seek track " + playingTrack.getIdentifier(), e);
             return;
         }
-        event.replySuccess("Successfully seeked to `" + TimeUtil.formatTime(playingTrack.getPosition()) + "/" + TimeUtil.formatTime(playingTrack.getDuration()) + "`!");
+        event.replySuccess("Successfully seeked to `" + TimeUtil.formatTime(seekMilliseconds) + "/" + TimeUtil.formatTime(trackDuration) + "`!");
     }
 }
@@ -18,12 +18,25 @@ package com.jagrosh.jmusicbot.commands.owner;
 import com.jagrosh.jdautilities.command.CommandEvent;
 import com.jagrosh.jdautilities.commons.JDAUtilitiesInfo;
 import com.jagrosh.jmusicbot.Bot;
+import com.jagrosh.jmusicbot.audio.AudioHandler;
+import com.jagrosh.jmusicbot.audio.FrameCache;
+import com.jagrosh.jmusicbot.audio.PacketTimings;
+import com.jagrosh.jmusicbot.audio.QualityGovernor;
+import com.jagrosh.jmusicbot.audio.QueuedTrack;
+import com.jagrosh.jmusicbot.audio.ResolutionCache;
+import com.jagrosh.jmusicbot.audio.ResolutionStore;
+import com.jagrosh.jmusicbot.audio.SendStats;
 import com.jagrosh.jmusicbot.commands.OwnerCommand;
+import com.jagrosh.jmusicbot.queue.AbstractQueue;
 import com.jagrosh.jmusicbot.utils.OtherUtil;
+import com.jagrosh.jmusicbot.utils.TimeUtil;
 import com.sedmelluq.discord.lavaplayer.tools.PlayerLibrary;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
 import net.dv8tion.jda.api.JDAInfo;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.ChannelType;
+import net.dv8tion.jda.api.entities.Guild;
 
 /**
  *
@@ -71,7 +84,96 @@ public class DebugCmd extends OwnerCommand
         long used = total - (Runtime.getRuntime().freeMemory() / 1024 / 1024);
         sb.append("\n\nRuntime Information:")
                 .append("\n  Total Memory = ").append(total)
-                .append("\n  Used Memory = ").append(used);
+                .append("\n  Used Memory = ").append(used)
+                .append("\n  Threads = ").append(ManagementFactory.getThreadMXBean().getThreadCount())
+                .append("\n  Virtual Thread Pools = ").append(bot.getPlayerManager().getVirtualThreadPools());
+        int queues = 0, entries = 0, live = 0;
+        long duration = 0;
+        SendStats.Summary sending = new SendStats.Summary();
+        Guild worst = null;
+        double worstRatio = 0;
+        for(Guild guild : event.getJDA().getGuilds())
+        {
+            if(!(guild.getAudioManager().getSendingHandler() instanceof AudioHandler))
+                continue;
+            AudioHandler handler = (AudioHandler)guild.getAudioManager().getSendingHandler();
+            SendStats.Summary stats = handler.getSendStats().getSummary();
+            sending.add(stats);
+            if(stats.getUnderrunRatio() > worstRatio)
+            {
+                worst = guild;
+                worstRatio = stats.getUnderrunRatio();
+            }
+            AbstractQueue<QueuedTrack> queue = handler.getQueue();
+            if(queue.isEmpty())
+                continue;
+            queues++;
+            entries += queue.size();
+            duration += queue.getDuration();
+            live += queue.getLiveCount();
+        }
+        sb.append("\n\nQueue Information:")
+                .append("\n  Active Queues = ").append(queues)
+                .append("\n  Queued Entries = ").append(entries)
+                .append("\n  Queued Time = ").append(TimeUtil.formatTime(duration, live));
+        sb.append("\n\nAudio Send Information (last ").append(TimeUnit.MILLISECONDS.toMinutes(SendStats.WINDOW)).append(" minutes):")
+                .append("\n  Frames Sent = ").append(sending.getFrames())
+                .append("\n  Underruns = ").append(sending.getUnderruns())
+                .append(String.format(" (%.2f%%)", 100 * sending.getUnderrunRatio()))
+                .append("\n  Longest Gap = ").append(sending.getLongestGapMillis()).append("ms")
+                .append("\n  Track Gaps = ").append(sending.formatTransitions())
+                .append("\n  Shared Streams = ").append(bot.getPlayerManager().getStreamBroadcaster().getBroadcasts())
+                .append(" (").append(bot.getPlayerManager().getStreamBroadcaster().getListeners()).append(" listening)")
+                .append("\n  Worst Guild = ").append(worst == null ? "None" : worst.getId() + String.format(" (%.2f%%)", 100 * worstRatio))
+                .append("\n  Send Intervals:\n    ").append(sending.formatIntervals().replace("\n", "\n    "));
+        FrameCache cache = bot.getPlayerManager().getFrameCache();
+        if(cache != null && cache.isEnabled())
+        {
+            long lookups = cache.getHits() + cache.getMisses();
+            sb.append("\n\nFrame Cache Information:")
+                    .append("\n  Hits = ").append(cache.getHits())
+                    .append(String.format(" (%.1f%%)", lookups == 0 ? 0.0 : 100.0 * cache.getHits() / lookups))
+                    .append("\n  Misses = ").append(cache.getMisses())
+                    .append("\n  Tracks = ").append(cache.getFiles())
+                    .append("\n  Size = ").append(cache.getUsed() / (1024 * 1024)).append("MB / ")
+                    .append(cache.getCapacity() / (1024 * 1024)).append("MB");
+        }
+        ResolutionCache resolutions = bot.getPlayerManager().getResolutionCache();
+        if(resolutions != null)
+        {
+            sb.append("\n\nResolution Cache:");
+            for(boolean search : new boolean[]{false, true})
+                sb.append("\n  ").append(search ? "Searches" : "Links").append(" = ")
+                        .append(resolutions.getSize(search)).append(" / ").append(resolutions.getCapacity(search))
+                        .append(", ").append(resolutions.getHits(search)).append(" hits")
+                        .append(String.format(" (%.1f%%)", 100 * resolutions.getHitRate(search)))
+                        .append(", ").append(resolutions.getNegativeHits(search)).append(" negative, ")
+                        .append(resolutions.getMisses(search)).append(" misses");
+            ResolutionStore disk = resolutions.getDisk();
+            if(disk != null)
+                sb.append("\n  Stored Links = ").append(disk.getSize()).append(", ")
+                        .append(disk.getUsed() / 1024).append("KB / ").append(disk.getCapacity() / (1024 * 1024)).append("MB, ")
+                        .append(resolutions.getDiskHits()).append(" hits, ")
+                        .append(disk.getCompactions()).append(" compactions");
+        }
+        PacketTimings timings = bot.getPlayerManager().getPacketTimings();
+        sb.append("\n\nPacket Timing (").append(bot.getConfig().getAudioSendMode()).append("):")
+                .append("\n  Packets = ").append(timings.getCount())
+                .append("\n  Mean Jitter = ").append(timings.getMeanJitterMicros()).append("us")
+                .append("\n  Longest Interval = ").append(timings.getLongestMicros() / 1000).append("ms")
+                .append("\n  Intervals:\n    ").append(timings.format().replace("\n", "\n    "));
+        QualityGovernor governor = bot.getPlayerManager().getQualityGovernor();
+        if(governor != null)
+            sb.append("\n\nQuality Governor:")
+                    .append("\n  Level = ").append(governor.getLevel())
+                    .append(" (Opus ").append(governor.getLevel().getOpusQuality())
+                    .append(", resampling ").append(governor.getLevel().getResamplingQuality()).append(")")
+                    .append("\n  Process CPU = ").append(Math.round(governor.getCpu() * 100)).append("%")
+                    .append("\n  Thread Lag = ").append(governor.getLag()).append("ms")
+                    .append("\n  Lowered = ").append(governor.getDowngrades())
+                    .append("\n  Raised = ").append(governor.getUpgrades());
+        sb.append("\n\nReplay Buffers = ").append(bot.getPlayerManager().getReplayPool().getUsed() / (1024 * 1024)).append("MB / ")
+                .append(bot.getPlayerManager().getReplayPool().getCapacity() / (1024 * 1024)).append("MB");
         sb.append("\n\nDiscord Information:")
                 .append("\n  ID = ").append(event.getJDA().getSelfUser().getId())
                 .append("\n  Guilds = ").append(event.getJDA().getGuildCache().size())
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.playlist;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Loads a list of identifiers a few at a time, but hands the results over in
+ * the list's order, as if they had been loaded one by one.
+ *
+ * Each load gets an ordering key of its own, so lavaplayer runs them side by
+ * side. What a load came to is held until every item before it has been
+ * handed over, then passed to that item's handler on whichever loader thread
+ * completed the gap. Only a limited stretch of the list past the oldest item
+ * still loading is started, so a slow item holds back a bounded amount.
+ *
+ * It can also be given a window, in which case only that many items are
+ * loaded at first, and another one each time {@link #request} is called.
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class OrderedLoader
+{
+    // how far past the oldest unfinished item loads may start, in multiples of the parallelism
+    private final static int LOOKAHEAD = 4;
+
+    private final AudioPlayerManager manager;
+    private final List<String> identifiers;
+    private final int parallelism;
+    private final Outcome[] outcomes;
+    private IntFunction<AudioLoadResultHandler> handlers;
+    private int allowed;
+    private int started;
+    private int delivered;
+    private int loading;
+    private boolean delivering;
+
+    /**
+     * @param identifiers what to load; only read as each item is started
+     * @param parallelism the most items to load at once
+     */
+    public OrderedLoader(AudioPlayerManager manager, List<String> identifiers, int parallelism)
+    {
+        this(manager, identifiers, parallelism, identifiers.size());
+    }
+
+    /**
+     * @param identifiers what to load; only read as each item is started
+     * @param parallelism the most items to load at once
+     * @param window      how many items to load before more are requested
+     */
+    public OrderedLoader(AudioPlayerManager manager, List<String> identifiers, int parallelism, int window)
+    {
+        this.manager = manager;
+        this.identifiers = identifiers;
+        this.parallelism = Math.max(1, parallelism);
+        this.outcomes = new Outcome[identifiers.size()];
+        this.allowed = Math.min(identifiers.size(), Math.max(0, window));
+    }
+
+    /**
+     * Starts loading.
+     *
+     * @param handlers gives the handler of the item at an index; each is
+     *                 called once, in the order of the items
+     */
+    public void load(IntFunction<AudioLoadResultHandler> handlers)
+    {
+        synchronized(this)
+        {
+            this.handlers = handlers;
+        }
+        startMore();
+    }
+
+    /**
+     * Lets some more items be loaded, past the window given at the start.
+     */
+    public void request(int count)
+    {
+        synchronized(this)
+        {
+            allowed = (int)Math.min(outcomes.length, (long)allowed + count);
+        }
+        startMore();
+    }
+
+    /**
+     * Whether every item has been loaded and handed over.
+     */
+    public synchronized boolean isFinished()
+    {
+        return delivered == outcomes.length;
+    }
+
+    private void startMore()
+    {
+        while(true)
+        {
+            int index;
+            synchronized(this)
+            {
+                if(handlers == null || started >= allowed || loading >= parallelism || started >= delivered + parallelism * LOOKAHEAD)
+                    return;
+                index = started++;
+                loading++;
+            }
+            // a key of its own, so that it doesn't wait for the other items
+            manager.loadItemOrdered(new Object(), identifiers.get(index), new Outcome(index));
+        }
+    }
+
+    private void finished(Outcome outcome)
+    {
+        synchronized(this)
+        {
+            outcomes[outcome.index] = outcome;
+            loading--;
+            // another thread is already handing over, and will get to this one
+            if(delivering)
+                return;
+            delivering = true;
+        }
+        while(true)
+        {
+            Outcome next;
+            synchronized(this)
+            {
+                if(delivered >= outcomes.length || outcomes[delivered] == null)
+                {
+                    delivering = false;
+                    break;
+                }
+                next = outcomes[delivered];
+                outcomes[delivered] = null;
+                delivered++;
+            }
+            next.replay(handlers.apply(next.index));
+        }
+        startMore();
+    }
+
+    // what one item's load came to, kept until it's that item's turn
+    private class Outcome implements AudioLoadResultHandler
+    {
+        private final int index;
+        private AudioTrack track;
+        private AudioPlaylist playlist;
+        private FriendlyException failure;
+
+        private Outcome(int index)
+        {
+            this.index = index;
+        }
+
+        private void replay(AudioLoadResultHandler handler)
+        {
+            if(track != null)
+                handler.trackLoaded(track);
+            else if(playlist != null)
+                handler.playlistLoaded(playlist);
+            else if(failure != null)
+                handler.loadFailed(failure);
+            else
+                handler.noMatches();
+        }
+
+        @Override
+        public void trackLoaded(AudioTrack track)
+        {
+            this.track = track;
+            finished(this);
+        }
+
+        @Override
+        public void playlistLoaded(AudioPlaylist playlist)
+        {
+            this.playlist = playlist;
+            finished(this);
+        }
+
+        @Override
+        public void noMatches()
+        {
+            finished(this);
+        }
+
+        @Override
+        public void loadFailed(FriendlyException exception)
+        {
+            this.failure = exception;
+            finished(this);
+        }
+    }
+}
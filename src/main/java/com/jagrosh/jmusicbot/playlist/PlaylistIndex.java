@@ -0,0 +1,283 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.playlist;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The entries of a playlist file, read from the file as they're asked for.
+ *
+ * Building the index streams through the file once and keeps only where each
+ * entry starts, so a playlist with a hundred thousand lines costs a few
+ * hundred kilobytes instead of a string per line. Blank lines and comments
+ * are skipped, and a {@code #shuffle} comment is noted. Shuffling permutes
+ * the index, not the file.
+ *
+ * If the file is changed after it was indexed, the offsets no longer point at
+ * its lines, so every entry comes back empty from then on; see
+ * {@link #isChanged}.
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class PlaylistIndex extends AbstractList<String> implements RandomAccess
+{
+    // how much of the file is read at a time when looking an entry up
+    private final static int BLOCK_SIZE = 8 * 1024;
+
+    private final Path path;
+    private final long[] offsets;
+    private final boolean shuffle;
+    private final long length;
+    private final FileTime modified;
+    private int[] order;
+    private byte[] block;
+    private long blockStart = -1;
+    private int blockLength;
+    private boolean changed;
+
+    private PlaylistIndex(Path path, long[] offsets, boolean shuffle, long length, FileTime modified)
+    {
+        this.path = path;
+        this.offsets = offsets;
+        this.shuffle = shuffle;
+        this.length = length;
+        this.modified = modified;
+    }
+
+    /**
+     * Streams through a playlist file, noting where each entry starts.
+     */
+    public static PlaylistIndex read(Path path) throws IOException
+    {
+        FileTime modified = Files.getLastModifiedTime(path);
+        long[] offsets = new long[64];
+        int size = 0;
+        boolean shuffle = false;
+        StringBuilder comment = new StringBuilder();
+        byte[] buffer = new byte[64 * 1024];
+        long position = 0;
+        long start = 0;
+        // what the current line has turned out to be so far
+        LineKind kind = LineKind.BLANK;
+        try(InputStream in = Files.newInputStream(path))
+        {
+            int read;
+            while((read = in.read(buffer)) != -1)
+            {
+                for(int i=0; i<read; i++, position++)
+                {
+                    byte b = buffer[i];
+                    if(b == '\n' || b == '\r')
+                    {
+                        if(kind == LineKind.SLASH)
+                            kind = LineKind.ENTRY;
+                        if(kind == LineKind.ENTRY)
+                        {
+                            if(size == offsets.length)
+                                offsets = Arrays.copyOf(offsets, size * 2);
+                            offsets[size++] = start;
+                        }
+                        else if(kind == LineKind.COMMENT && isShuffle(comment))
+                            shuffle = true;
+                        kind = LineKind.BLANK;
+                        comment.setLength(0);
+                        start = position + 1;
+                        continue;
+                    }
+                    boolean space = b >= 0 && b <= ' ';
+                    switch(kind)
+                    {
+                        case BLANK:
+                            if(b == '#')
+                            {
+                                kind = LineKind.COMMENT;
+                                comment.append('#');
+                            }
+                            else if(b == '/')
+                                kind = LineKind.SLASH;
+                            else if(!space)
+                                kind = LineKind.ENTRY;
+                            break;
+                        case SLASH:
+                            if(b == '/')
+                            {
+                                kind = LineKind.COMMENT;
+                                comment.append("//");
+                            }
+                            else
+                                kind = LineKind.ENTRY;
+                            break;
+                        case COMMENT:
+                            // only short comments can be a directive
+                            if(!space && comment.length() <= 10)
+                                comment.append((char)b);
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            }
+        }
+        // the last line doesn't need to end with a line break
+        if(kind == LineKind.ENTRY || kind == LineKind.SLASH)
+        {
+            if(size == offsets.length)
+                offsets = Arrays.copyOf(offsets, size + 1);
+            offsets[size++] = start;
+        }
+        else if(kind == LineKind.COMMENT && isShuffle(comment))
+            shuffle = true;
+        return new PlaylistIndex(path, Arrays.copyOf(offsets, size), shuffle, position, modified);
+    }
+
+    private static boolean isShuffle(CharSequence comment)
+    {
+        String directive = comment.toString();
+        return directive.equalsIgnoreCase("#shuffle") || directive.equalsIgnoreCase("//shuffle");
+    }
+
+    /**
+     * Whether the file asked to be shuffled, with a {@code #shuffle} or
+     * {@code //shuffle} comment.
+     */
+    public boolean isShuffle()
+    {
+        return shuffle;
+    }
+
+    /**
+     * Puts the entries in a random order, each order being equally likely.
+     */
+    public synchronized void shuffle()
+    {
+        if(order == null)
+        {
+            order = new int[offsets.length];
+            for(int i=0; i<order.length; i++)
+                order[i] = i;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for(int i=order.length-1; i>0; i--)
+        {
+            int other = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[other];
+            order[other] = tmp;
+        }
+    }
+
+    /**
+     * Whether the file has been changed since it was indexed, which means the
+     * entries can't be read anymore.
+     */
+    public synchronized boolean isChanged()
+    {
+        if(!changed)
+        {
+            try
+            {
+                changed = Files.size(path) != length || !Files.getLastModifiedTime(path).equals(modified);
+            }
+            catch(IOException ex)
+            {
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public int size()
+    {
+        return offsets.length;
+    }
+
+    @Override
+    public synchronized String get(int index)
+    {
+        if(index < 0 || index >= offsets.length)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + offsets.length);
+        if(changed)
+            return "";
+        long offset = offsets[order == null ? index : order[index]];
+        try
+        {
+            return readLine(offset);
+        }
+        catch(IOException ex)
+        {
+            changed = true;
+            return "";
+        }
+    }
+
+    // reads the line starting at an offset, reusing the last block read when
+    // it holds the whole line, which it mostly does when reading in order
+    private String readLine(long offset) throws IOException
+    {
+        int size = BLOCK_SIZE;
+        while(true)
+        {
+            if(offset < blockStart || offset >= blockStart + blockLength)
+            {
+                if(isChanged())
+                    return "";
+                readBlock(offset, size);
+            }
+            int from = (int)(offset - blockStart);
+            for(int i=from; i<blockLength; i++)
+                if(block[i] == '\n' || block[i] == '\r')
+                    return new String(block, from, i - from, StandardCharsets.UTF_8).trim();
+            // the file ends here, or the line goes on past this block
+            if(blockStart + blockLength >= length)
+                return new String(block, from, blockLength - from, StandardCharsets.UTF_8).trim();
+            size = Math.max(size, blockLength) * 2;
+            readBlock(offset, size);
+        }
+    }
+
+    private void readBlock(long offset, int size) throws IOException
+    {
+        if(block == null || block.length < size)
+            block = new byte[size];
+        ByteBuffer buffer = ByteBuffer.wrap(block, 0, size);
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            while(buffer.hasRemaining())
+                if(channel.read(buffer, offset + buffer.position()) == -1)
+                    break;
+        }
+        blockStart = offset;
+        blockLength = buffer.position();
+    }
+
+    private enum LineKind
+    {
+        BLANK, ENTRY, COMMENT, SLASH
+    }
+}
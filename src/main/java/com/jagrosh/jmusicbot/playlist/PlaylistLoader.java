@@ -94,25 +94,10 @@ public class PlaylistLoader
         {
             if(folderExists())
             {
-                boolean[] shuffle = {false};
-                List<String> list = new ArrayList<>();
-                Files.readAllLines(OtherUtil.getPath(config.getPlaylistsFolder()+File.separator+name+".txt")).forEach(str -> 
-                {
-                    String s = str.trim();
-                    if(s.isEmpty())
-                        return;
-                    if(s.startsWith("#") || s.startsWith("//"))
-                    {
-                        s = s.replaceAll("\\s+", "");
-                        if(s.equalsIgnoreCase("#shuffle") || s.equalsIgnoreCase("//shuffle"))
-                            shuffle[0]=true;
-                    }
-                    else
-                        list.add(s);
-                });
-                if(shuffle[0])
-                    shuffle(list);
-                return new Playlist(name, list, shuffle[0]);
+                PlaylistIndex index = PlaylistIndex.read(OtherUtil.getPath(config.getPlaylistsFolder()+File.separator+name+".txt"));
+                if(index.isShuffle())
+                    index.shuffle();
+                return new Playlist(name, index, index.isShuffle());
             }
             else
             {
@@ -129,26 +114,20 @@ public class PlaylistLoader
     
     private static <T> void shuffle(List<T> list)
     {
-        for(int first =0; first<list.size(); first++)
-        {
-            int second = (int)(Math.random()*list.size());
-            T tmp = list.get(first);
-            list.set(first, list.get(second));
-            list.set(second, tmp);
-        }
+        Collections.shuffle(list);
     }
     
     
     public class Playlist
     {
         private final String name;
-        private final List<String> items;
+        private final PlaylistIndex items;
         private final boolean shuffle;
         private final List<AudioTrack> tracks = new LinkedList<>();
         private final List<PlaylistLoadError> errors = new LinkedList<>();
         private boolean loaded = false;
         
-        private Playlist(String name, List<String> items, boolean shuffle)
+        private Playlist(String name, PlaylistIndex items, boolean shuffle)
         {
             this.name = name;
             this.items = items;
@@ -156,85 +135,165 @@ public class PlaylistLoader
         }
         
         public void loadTracks(AudioPlayerManager manager, Consumer<AudioTrack> consumer, Runnable callback)
+        {
+            loadTrackBatches(manager, batch -> batch.forEach(consumer), callback);
+        }
+        
+        /**
+         * Loads the playlist like {@link #loadTracks}, but hands over the tracks
+         * each item resolved to together, so a nested playlist arrives as one batch.
+         * Several items are loaded at once, but the batches still arrive in the
+         * playlist's order.
+         */
+        public void loadTrackBatches(AudioPlayerManager manager, Consumer<List<AudioTrack>> consumer, Runnable callback)
         {
             if(loaded)
                 return;
             loaded = true;
-            for(int i=0; i<items.size(); i++)
+            new OrderedLoader(manager, items, config.getPlaylistLoadParallelism()).load(index -> new ItemHandler(index)
             {
-                boolean last = i+1 == items.size();
-                int index = i;
-                manager.loadItemOrdered(name, items.get(i), new AudioLoadResultHandler() 
+                @Override
+                protected void found(List<AudioTrack> batch)
                 {
-                    private void done()
-                    {
-                        if(last)
-                        {
-                            if(shuffle)
-                                shuffleTracks();
-                            if(callback != null)
-                                callback.run();
-                        }
-                    }
+                    tracks.addAll(batch);
+                    consumer.accept(batch);
+                }
 
-                    @Override
-                    public void trackLoaded(AudioTrack at) 
+                @Override
+                protected void done()
+                {
+                    if(index+1 == items.size())
                     {
-                        if(config.isTooLong(at))
-                            errors.add(new PlaylistLoadError(index, items.get(index), "This track is longer than the allowed maximum"));
-                        else
-                        {
-                            at.setUserData(0L);
-                            tracks.add(at);
-                            consumer.accept(at);
-                        }
-                        done();
+                        if(shuffle)
+                            shuffleTracks();
+                        if(callback != null)
+                            callback.run();
                     }
+                }
+            });
+        }
+        
+        /**
+         * Loads the playlist only as far as playback needs it, for playlists
+         * too big to load all at once. Nothing is loaded until items are asked
+         * for with {@link OrderedLoader#request} on the returned loader, such
+         * as one each time a track is played, and an item that gives no tracks
+         * is replaced with the next one. The tracks aren't kept in
+         * {@link #getTracks}, but errors still are. Returns null if the
+         * playlist has already been loaded.
+         */
+        public OrderedLoader streamTracks(AudioPlayerManager manager, Consumer<AudioTrack> consumer, Runnable callback)
+        {
+            if(loaded)
+                return null;
+            loaded = true;
+            OrderedLoader loader = new OrderedLoader(manager, items, config.getPlaylistLoadParallelism(), 0);
+            loader.load(index -> new ItemHandler(index)
+            {
+                @Override
+                protected void found(List<AudioTrack> batch)
+                {
+                    if(batch.isEmpty())
+                        missed();
+                    batch.forEach(consumer);
+                }
 
-                    @Override
-                    public void playlistLoaded(AudioPlaylist ap) 
-                    {
-                        if(ap.isSearchResult())
-                        {
-                            trackLoaded(ap.getTracks().get(0));
-                        }
-                        else if(ap.getSelectedTrack()!=null)
-                        {
-                            trackLoaded(ap.getSelectedTrack());
-                        }
-                        else
-                        {
-                            List<AudioTrack> loaded = new ArrayList<>(ap.getTracks());
-                            if(shuffle)
-                                for(int first =0; first<loaded.size(); first++)
-                                {
-                                    int second = (int)(Math.random()*loaded.size());
-                                    AudioTrack tmp = loaded.get(first);
-                                    loaded.set(first, loaded.get(second));
-                                    loaded.set(second, tmp);
-                                }
-                            loaded.removeIf(track -> config.isTooLong(track));
-                            loaded.forEach(at -> at.setUserData(0L));
-                            tracks.addAll(loaded);
-                            loaded.forEach(at -> consumer.accept(at));
-                        }
-                        done();
-                    }
+                @Override
+                protected void missed()
+                {
+                    // the rest of a changed file can't be read, so it isn't worth going through
+                    if(!items.isChanged())
+                        loader.request(1);
+                }
 
-                    @Override
-                    public void noMatches() 
-                    {
-                        errors.add(new PlaylistLoadError(index, items.get(index), "No matches found."));
-                        done();
-                    }
+                @Override
+                protected void done()
+                {
+                    if(index+1 == items.size() && callback != null)
+                        callback.run();
+                }
+            });
+            return loader;
+        }
+        
+        // what to do with what one item loaded to; errors are recorded here
+        private class ItemHandler implements AudioLoadResultHandler
+        {
+            private final int index;
+            
+            private ItemHandler(int index)
+            {
+                this.index = index;
+            }
+            
+            // the playable tracks the item gave, possibly none
+            protected void found(List<AudioTrack> batch) {}
+            
+            // called after an error for the item is recorded
+            protected void missed() {}
+            
+            // called last for every item
+            protected void done() {}
+            
+            private void error(String reason)
+            {
+                errors.add(new PlaylistLoadError(index, items.get(index), reason));
+                missed();
+            }
+            
+            private void load(AudioTrack at)
+            {
+                if(config.isTooLong(at))
+                    error("This track is longer than the allowed maximum");
+                else
+                {
+                    at.setUserData(0L);
+                    found(Collections.singletonList(at));
+                }
+            }
 
-                    @Override
-                    public void loadFailed(FriendlyException fe) 
-                    {
-                        errors.add(new PlaylistLoadError(index, items.get(index), "Failed to load track: "+fe.getLocalizedMessage()));
-                        done();
-                    }
-                });
+            @Override
+            public void trackLoaded(AudioTrack at) 
+            {
+                load(at);
+                done();
+            }
+
+            @Override
+            public void playlistLoaded(AudioPlaylist ap) 
+            {
+                if(ap.isSearchResult())
+                {
+                    load(ap.getTracks().get(0));
+                }
+                else if(ap.getSelectedTrack()!=null)
+                {
+                    load(ap.getSelectedTrack());
+                }
+                else
+                {
+                    List<AudioTrack> loaded = new ArrayList<>(ap.getTracks());
+                    if(shuffle)
+                        shuffle(loaded);
+                    loaded.removeIf(track -> config.isTooLong(track));
+                    loaded.forEach(at -> at.setUserData(0L));
+                    found(loaded);
+                }
+                done();
+            }
+
+            @Override
+            public void noMatches() 
+            {
+                error("No matches found.");
+                done();
+            }
+
+            @Override
+            public void loadFailed(FriendlyException fe) 
+            {
+                error("Failed to load track: "+fe.getLocalizedMessage());
+                done();
             }
         }
         
@@ -252,6 +311,14 @@ public class PlaylistLoader
         {
             return items;
         }
+        
+        /**
+         * Whether the playlist's file has been changed since it was read.
+         */
+        public boolean isChanged()
+        {
+            return items.isChanged();
+        }
 
         public List<AudioTrack> getTracks()
         {
@@ -16,10 +16,20 @@
 package com.jagrosh.jmusicbot.queue;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
+ * Base class for the queue types. Entries are kept in a {@link QueueList}, so
+ * indexed reads, inserts, removals and moves are all O(log n), and the total
+ * and per-requester counts and lengths are kept up to date as entries change.
+ *
+ * Changes are made one at a time under the queue's lock. Reads of the entries
+ * go through an immutable {@link QueueSnapshot} instead, so commands and the
+ * player thread can look at the queue while it changes without locking.
  *
  * @author Wolfgang Schwendtbauer
  * @param <T>
@@ -28,14 +38,88 @@ public abstract class AbstractQueue<T extends Queueable>
 {
     protected AbstractQueue(AbstractQueue<T> queue)
     {
-        this.list = queue != null ? queue.getList() : new LinkedList<>();
+        this(queue, new QueueList<>());
+    }
+
+    /**
+     * @param queue the queue whose entries to take over, or null
+     * @param storage an empty list to keep the entries in; it has to be a
+     *                {@link QueueList}, since the totals and snapshots are kept there
+     */
+    protected AbstractQueue(AbstractQueue<T> queue, QueueList<T> storage)
+    {
+        if(!storage.isEmpty())
+            throw new IllegalArgumentException("The storage list has to be empty");
+        this.list = storage;
+        if(queue != null)
+            list.addAll(queue.snapshot());
     }
 
-    protected final List<T> list;
+    protected final QueueList<T> list;
 
     public abstract int add(T item);
 
-    public void addAt(int index, T item)
+    /**
+     * Adds several entries at once, each placed as {@link #add(Queueable)}
+     * would place it if they were added one after another.
+     *
+     * @param items the entries to add, in order
+     * @return the index each entry was inserted at
+     */
+    public synchronized int[] addAll(List<T> items)
+    {
+        int[] positions = new int[items.size()];
+        for(int i=0; i<positions.length; i++)
+            positions[i] = add(items.get(i));
+        return positions;
+    }
+
+    /**
+     * Adds an entry unless one that plays the same thing is already queued.
+     *
+     * @return the index it was inserted at, or -1 if it was a duplicate
+     */
+    public synchronized int addIfAbsent(T item)
+    {
+        return list.isQueued(item.getDuplicateKey()) ? -1 : add(item);
+    }
+
+    /**
+     * Adds the entries that aren't already queued, also dropping any that
+     * repeat an earlier entry of the same batch.
+     *
+     * @param items the entries to add, in order
+     * @return the index each entry was inserted at, or -1 for a duplicate
+     */
+    public synchronized int[] addAllAbsent(List<T> items)
+    {
+        int[] positions = new int[items.size()];
+        List<T> absent = new ArrayList<>(items.size());
+        Set<String> seen = new HashSet<>();
+        for(int i=0; i<positions.length; i++)
+        {
+            String key = items.get(i).getDuplicateKey();
+            if(key != null && (list.isQueued(key) || !seen.add(key)))
+                positions[i] = -1;
+            else
+            {
+                positions[i] = absent.size();
+                absent.add(items.get(i));
+            }
+        }
+        int[] added = addAll(absent);
+        for(int i=0; i<positions.length; i++)
+            if(positions[i] >= 0)
+                positions[i] = added[positions[i]];
+        return positions;
+    }
+
+    public synchronized boolean isQueued(String key)
+    {
+        return list.isQueued(key);
+    }
+
+    public synchronized void addAt(int index, T item)
     {
         if(index >= list.size())
             list.add(item);
@@ -44,71 +128,129 @@ public abstract class AbstractQueue<T extends Queueable>
     }
 
     public int size() {
-        return list.size();
+        return list.snapshot().size();
     }
 
-    public T pull() {
+    public synchronized T pull() {
         return list.remove(0);
     }
 
     public boolean isEmpty()
     {
-        return list.isEmpty();
+        return list.snapshot().isEmpty();
     }
 
+    /**
+     * @return an immutable copy of the entries, in play order
+     */
     public List<T> getList()
     {
-        return list;
+        return list.snapshot();
+    }
+
+    /**
+     * @return an immutable copy of the entries as they are now, along with
+     *         their lengths; it is taken in O(1) without locking
+     */
+    public QueueSnapshot<T> snapshot()
+    {
+        return list.snapshot();
+    }
+
+    /**
+     * @return the total length of the entries whose length is known, in milliseconds
+     */
+    public long getDuration()
+    {
+        return list.snapshot().getDuration();
+    }
+
+    /**
+     * @return how many entries have no known length, such as live streams
+     */
+    public int getLiveCount()
+    {
+        return list.snapshot().getLiveCount();
+    }
+
+    public synchronized int count(long identifier)
+    {
+        return list.count(identifier);
+    }
+
+    public synchronized long getDuration(long identifier)
+    {
+        return list.getDuration(identifier);
+    }
+
+    public synchronized int getLiveCount(long identifier)
+    {
+        return list.getLiveCount(identifier);
+    }
+
+    /**
+     * @param index a position in the queue
+     * @return the total length of the entries ahead of the position, or
+     *         {@link Long#MAX_VALUE} if one of them has no known length
+     */
+    public long timeUntil(int index)
+    {
+        return list.snapshot().timeUntil(index);
+    }
+
+    /**
+     * @return the position of the requester's next entry, or -1 if they have none
+     */
+    public synchronized int firstIndexOf(long identifier)
+    {
+        return list.firstIndexOf(identifier);
+    }
+
+    /**
+     * @return the total length of the entries ahead of the requester's next
+     *         entry, {@link Long#MAX_VALUE} if one of them has no known length,
+     *         or -1 if the requester has nothing queued
+     */
+    public synchronized long timeUntilFirst(long identifier)
+    {
+        int index = list.firstIndexOf(identifier);
+        return index < 0 ? -1 : list.timeUntil(index);
     }
 
     public T get(int index) {
-        return list.get(index);
+        return list.snapshot().get(index);
     }
 
-    public T remove(int index)
+    public synchronized T remove(int index)
     {
         return list.remove(index);
     }
 
-    public int removeAll(long identifier)
+    public synchronized int removeAll(long identifier)
     {
-        int count = 0;
-        for(int i=list.size()-1; i>=0; i--)
-        {
-            if(list.get(i).getIdentifier()==identifier)
-            {
-                list.remove(i);
-                count++;
-            }
-        }
-        return count;
+        return list.removeAll(identifier);
     }
 
-    public void clear()
+    public synchronized void clear()
     {
         list.clear();
     }
 
+    /**
+     * Shuffles a requester's entries among the positions they already hold
+     * @return how many entries were shuffled
+     */
     public int shuffle(long identifier)
     {
-        List<Integer> iset = new ArrayList<>();
-        for(int i=0; i<list.size(); i++)
-        {
-            if(list.get(i).getIdentifier()==identifier)
-                iset.add(i);
-        }
-        for(int j=0; j<iset.size(); j++)
-        {
-            int first = iset.get(j);
-            int second = iset.get((int)(Math.random()*iset.size()));
-            T temp = list.get(first);
-            list.set(first, list.get(second));
-            list.set(second, temp);
-        }
-        return iset.size();
+        return shuffle(identifier, ThreadLocalRandom.current());
+    }
+
+    public synchronized int shuffle(long identifier, Random random)
+    {
+        return list.shuffle(identifier, random);
     }
 
-    public void skip(int number)
+    public synchronized void skip(int number)
     {
         if (number > 0) {
             list.subList(0, number).clear();
@@ -121,7 +263,7 @@ public abstract class AbstractQueue<T extends Queueable>
      * @param to The new position of the item
      * @return the moved item
      */
-    public T moveItem(int from, int to)
+    public synchronized T moveItem(int from, int to)
     {
         T item = list.remove(from);
         list.add(to, item);
@@ -15,7 +15,9 @@
  */
 package com.jagrosh.jmusicbot.queue;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -30,25 +32,53 @@ public class FairQueue<T extends Queueable> extends AbstractQueue<T>
         super(queue);
     }
 
-    protected final Set<Long> set = new HashSet<>();
+    @Override
+    public synchronized int add(T item)
+    {
+        int index = list.fairIndex(item.getIdentifier());
+        list.add(index, item);
+        return index;
+    }
 
     @Override
-    public int add(T item)
+    public synchronized int[] addAll(List<T> items)
     {
-        int lastIndex;
-        for(lastIndex=list.size()-1; lastIndex>-1; lastIndex--)
-            if(list.get(lastIndex).getIdentifier() == item.getIdentifier())
-                break;
-        lastIndex++;
-        set.clear();
-        for(; lastIndex<list.size(); lastIndex++)
+        // each fair placement is O(log n), so only a batch that is large next to
+        // the queue is worth merging in with one pass and a rebuild
+        long identifier = items.isEmpty() ? 0 : items.get(0).getIdentifier();
+        if((long)items.size() * (32 - Integer.numberOfLeadingZeros(list.size())) <= list.size()
+                || items.stream().anyMatch(item -> item.getIdentifier() != identifier))
+            return super.addAll(items);
+
+        // everything up to the requester's last entry stays where it is; after
+        // that, each new entry goes in wherever the next requester repeats
+        List<T> entries = new ArrayList<>(list);
+        int start = entries.size();
+        while(start > 0 && entries.get(start - 1).getIdentifier() != identifier)
+            start--;
+        List<T> merged = new ArrayList<>(entries.size() + items.size());
+        merged.addAll(entries.subList(0, start));
+        int[] positions = new int[items.size()];
+        int next = 0;
+        Set<Long> seen = new HashSet<>();
+        for(T entry : entries.subList(start, entries.size()))
+        {
+            if(next < positions.length && !seen.add(entry.getIdentifier()))
+            {
+                positions[next] = merged.size();
+                merged.add(items.get(next++));
+                seen.clear();
+                seen.add(entry.getIdentifier());
+            }
+            merged.add(entry);
+        }
+        for(; next < positions.length; next++)
         {
-            if(set.contains(list.get(lastIndex).getIdentifier()))
-                break;
-            set.add(list.get(lastIndex).getIdentifier());
+            positions[next] = merged.size();
+            merged.add(items.get(next));
         }
-        list.add(lastIndex, item);
-        return lastIndex;
+        list.rebuild(merged);
+        return positions;
     }
 
 }
@@ -0,0 +1,832 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.queue;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.RandomAccess;
+import java.util.TreeSet;
+
+/**
+ * A list of queue entries kept in a randomized balanced tree (a treap), so
+ * indexed reads, inserts and removals all run in O(log n).
+ *
+ * Every entry is also threaded onto the lane of its requester, and each subtree
+ * remembers which of its entries repeats a requester the latest in the list.
+ * That is enough for {@link #fairIndex(long)} to find the position the fair
+ * queue inserts at with a single walk down the tree.
+ *
+ * @author Alex Yau (TheMajoris)
+ * @param <T>
+ */
+public class QueueList<T extends Queueable> extends AbstractList<T> implements RandomAccess
+{
+    // order labels live in [0, LABEL_LIMIT); appends only step APPEND_GAP ahead
+    // so that a long run of appends doesn't use up the space in a few halvings
+    private final static long LABEL_LIMIT = 1L << 62;
+    private final static long APPEND_GAP = 1L << 32;
+    private final static double RELABEL_DENSITY = 4.0 / 3.0;
+
+    private final Random random = new Random();
+    private final Comparator<Node> labelOrder = (a, b) -> Long.compare(a.label, b.label);
+    private final Map<Long, Lane> lanes = new HashMap<>();
+    private final Map<String, Integer> duplicateKeys = new HashMap<>();
+    private Node root, head, tail;
+    private volatile QueueSnapshot<T> snapshot = QueueSnapshot.empty();
+
+    @Override
+    public T get(int index)
+    {
+        return nodeAt(index).item;
+    }
+
+    @Override
+    public int size()
+    {
+        return size(root);
+    }
+
+    @Override
+    public T set(int index, T item)
+    {
+        Node node = nodeAt(index);
+        T old = node.item;
+        if(node.identifier == item.getIdentifier())
+        {
+            Lane lane = lanes.get(node.identifier);
+            count(node, lane, -1);
+            node.item = item;
+            node.length = item.getDuration();
+            count(node, lane, 1);
+            pullToRoot(node);
+            snapshot = snapshot.withSet(index, item, node.length);
+        }
+        else
+        {
+            unlink(node);
+            insert(index, item, node.key);
+            modCount++;
+        }
+        return old;
+    }
+
+    @Override
+    public void add(int index, T item)
+    {
+        add(index, item, Long.MIN_VALUE);
+    }
+
+    /**
+     * Inserts an item along with a sort key, for queue types that order their
+     * entries by something other than arrival. Items added without one get
+     * the lowest key, so {@link #indexAfter(long)} never places anything in
+     * front of them.
+     */
+    public void add(int index, T item, long key)
+    {
+        if(index < 0 || index > size())
+            throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size());
+        insert(index, item, key);
+        modCount++;
+    }
+
+    /**
+     * Appends all of the given items. Filling an empty list this way builds the
+     * tree directly from the sequence, which is linear apart from the lanes.
+     */
+    @Override
+    public boolean addAll(Collection<? extends T> items)
+    {
+        if(!isEmpty())
+            return super.addAll(items);
+        if(items.isEmpty())
+            return false;
+        build(items);
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public T remove(int index)
+    {
+        Node node = nodeAt(index);
+        unlink(node);
+        modCount++;
+        return node.item;
+    }
+
+    @Override
+    public void clear()
+    {
+        root = head = tail = null;
+        lanes.clear();
+        duplicateKeys.clear();
+        snapshot = snapshot.withRoot(null);
+        modCount++;
+    }
+
+    /**
+     * Replaces everything in the list with the given items in one step, so a
+     * snapshot never shows the list half rebuilt. Like filling an empty list,
+     * this builds the tree directly from the sequence.
+     */
+    public void rebuild(Collection<? extends T> items)
+    {
+        root = head = tail = null;
+        lanes.clear();
+        duplicateKeys.clear();
+        if(items.isEmpty())
+            snapshot = snapshot.withRoot(null);
+        else
+            build(items);
+        modCount++;
+    }
+
+    /**
+     * Removes all of a requester's entries in O(k log n), without looking at
+     * anyone else's.
+     *
+     * @param identifier the requester
+     * @return how many entries were removed
+     */
+    public int removeAll(long identifier)
+    {
+        Lane lane = lanes.get(identifier);
+        if(lane == null)
+            return 0;
+        List<Node> nodes = new ArrayList<>(lane.nodes);
+        for(Node node : nodes)
+            unlink(node);
+        modCount++;
+        return nodes.size();
+    }
+
+    /**
+     * Shuffles a requester's entries among the positions they already hold,
+     * with each ordering equally likely (Fisher-Yates). Only the requester's
+     * k entries are touched, in O(k log n).
+     *
+     * @param identifier the requester
+     * @param random the source of randomness
+     * @return how many entries were shuffled
+     */
+    public int shuffle(long identifier, Random random)
+    {
+        Lane lane = lanes.get(identifier);
+        if(lane == null)
+            return 0;
+        List<Node> nodes = new ArrayList<>(lane.nodes);
+        for(int i = nodes.size() - 1; i > 0; i--)
+        {
+            Node a = nodes.get(i);
+            Node b = nodes.get(random.nextInt(i + 1));
+            T item = a.item;
+            long length = a.length;
+            a.item = b.item;
+            a.length = b.length;
+            b.item = item;
+            b.length = length;
+        }
+        for(Node node : nodes)
+        {
+            pullToRoot(node);
+            snapshot = snapshot.withSet(indexOf(node), node.item, node.length);
+        }
+        return nodes.size();
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex)
+    {
+        if(fromIndex >= toIndex)
+            return;
+        Node node = nodeAt(fromIndex);
+        for(int i = fromIndex; i < toIndex; i++)
+        {
+            Node next = node.after;
+            unlink(node);
+            node = next;
+        }
+        modCount++;
+    }
+
+    @Override
+    public Iterator<T> iterator()
+    {
+        return new Iterator<T>()
+        {
+            private Node next = head;
+            private Node last = null;
+            private int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext()
+            {
+                return next != null;
+            }
+
+            @Override
+            public T next()
+            {
+                if(modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+                if(next == null)
+                    throw new NoSuchElementException();
+                last = next;
+                next = next.after;
+                return last.item;
+            }
+
+            @Override
+            public void remove()
+            {
+                if(last == null)
+                    throw new IllegalStateException();
+                if(modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+                unlink(last);
+                last = null;
+                expectedModCount = ++modCount;
+            }
+        };
+    }
+
+    /**
+     * @return an immutable copy of the list as it is now, which is safe to read
+     *         from any thread; getting it takes O(1) and no lock
+     */
+    public QueueSnapshot<T> snapshot()
+    {
+        return snapshot;
+    }
+
+    /**
+     * @return the total length of the entries whose length is known, in milliseconds
+     */
+    public long getDuration()
+    {
+        return root == null ? 0 : root.duration;
+    }
+
+    /**
+     * @return how many entries have no known length, such as live streams
+     */
+    public int getLiveCount()
+    {
+        return root == null ? 0 : root.live;
+    }
+
+    /**
+     * @param identifier a requester
+     * @return how many entries the requester has in the list
+     */
+    public int count(long identifier)
+    {
+        Lane lane = lanes.get(identifier);
+        return lane == null ? 0 : lane.nodes.size();
+    }
+
+    /**
+     * @param identifier a requester
+     * @return the total length of the requester's entries whose length is known
+     */
+    public long getDuration(long identifier)
+    {
+        Lane lane = lanes.get(identifier);
+        return lane == null ? 0 : lane.duration;
+    }
+
+    /**
+     * @param identifier a requester
+     * @return how many of the requester's entries have no known length
+     */
+    public int getLiveCount(long identifier)
+    {
+        Lane lane = lanes.get(identifier);
+        return lane == null ? 0 : lane.live;
+    }
+
+    /**
+     * @param key a duplicate key, as given by {@link Queueable#getDuplicateKey()}
+     * @return whether an entry with the key is in the list, found in O(1)
+     */
+    public boolean isQueued(String key)
+    {
+        return key != null && duplicateKeys.containsKey(key);
+    }
+
+    /**
+     * @param identifier a requester
+     * @return the index of the requester's first entry, or -1 if they have none
+     */
+    public int firstIndexOf(long identifier)
+    {
+        Lane lane = lanes.get(identifier);
+        return lane == null ? -1 : indexOf(lane.nodes.first());
+    }
+
+    /**
+     * @param identifier a requester
+     * @return the index of the requester's last entry, or -1 if they have none
+     */
+    public int lastIndexOf(long identifier)
+    {
+        Lane lane = lanes.get(identifier);
+        return lane == null ? -1 : indexOf(lane.nodes.last());
+    }
+
+    /**
+     * @return the sort key the entry at an index was added with
+     */
+    public long keyAt(int index)
+    {
+        return nodeAt(index).key;
+    }
+
+    /**
+     * Finds the first entry with a sort key greater than the given one in
+     * O(log n), using the largest key kept for each subtree. For a list kept in
+     * key order, that is where an entry with this key goes to stay in order
+     * behind the entries with equal keys.
+     *
+     * @param key the sort key of a new entry
+     * @return the index of the first entry with a greater key, or the size of
+     *         the list if there is none
+     */
+    public int indexAfter(long key)
+    {
+        int index = 0;
+        Node node = root;
+        while(node != null)
+        {
+            if(maxKey(node.left) > key)
+                node = node.left;
+            else if(node.key > key)
+                return index + size(node.left);
+            else
+            {
+                index += size(node.left) + 1;
+                node = maxKey(node.right) > key ? node.right : null;
+            }
+        }
+        return size();
+    }
+
+    /**
+     * Adds up the lengths of the entries ahead of an index in O(log n).
+     *
+     * @param index an index in the list, or its size
+     * @return the total length of the entries before the index, or
+     *         {@link Long#MAX_VALUE} if one of them has no known length
+     */
+    public long timeUntil(int index)
+    {
+        if(index < 0 || index > size())
+            throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size());
+        long time = 0;
+        int live = 0;
+        Node node = root;
+        while(node != null)
+        {
+            if(index <= size(node.left))
+                node = node.left;
+            else
+            {
+                time += duration(node.left) + (node.length == Long.MAX_VALUE ? 0 : node.length);
+                live += live(node.left) + (node.length == Long.MAX_VALUE ? 1 : 0);
+                index -= size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return live > 0 ? Long.MAX_VALUE : time;
+    }
+
+    /**
+     * Finds the position a new entry from the given requester gets in a fair
+     * queue: after the requester's last entry, at the first spot where some
+     * other requester would repeat. This is the same spot the original linear
+     * scan picked, but found in O(log n).
+     *
+     * @param identifier the requester of the new entry
+     * @return the index to insert the new entry at
+     */
+    public int fairIndex(long identifier)
+    {
+        // an entry repeats "after" the requester's last entry if the previous
+        // entry of its own requester comes later in the list than that
+        Lane lane = lanes.get(identifier);
+        long after = lane == null ? -1 : lane.nodes.last().label;
+        int index = 0;
+        Node node = root;
+        while(node != null)
+        {
+            if(node.left != null && repeatsAfter(node.left.repeat, after))
+                node = node.left;
+            else if(repeatsAfter(node, after))
+                return index + size(node.left);
+            else
+            {
+                index += size(node.left) + 1;
+                node = node.right != null && repeatsAfter(node.right.repeat, after) ? node.right : null;
+            }
+        }
+        return size();
+    }
+
+    private boolean repeatsAfter(Node node, long label)
+    {
+        return node != null && node.lanePrev != null && node.lanePrev.label > label;
+    }
+
+    private int indexOf(Node node)
+    {
+        int index = size(node.left);
+        for(; node.parent != null; node = node.parent)
+            if(node.parent.right == node)
+                index += size(node.parent.left) + 1;
+        return index;
+    }
+
+    private Node nodeAt(int index)
+    {
+        if(index < 0 || index >= size())
+            throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size());
+        Node node = root;
+        while(true)
+        {
+            int left = size(node.left);
+            if(index < left)
+                node = node.left;
+            else if(index == left)
+                return node;
+            else
+            {
+                index -= left + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    private Node insert(int index, T item, long key)
+    {
+        Node node = new Node(item);
+        node.key = key;
+        Node after = index == size() ? null : nodeAt(index);
+        Node before = after == null ? tail : after.before;
+
+        // thread the node into list order and give it an order label
+        node.before = before;
+        node.after = after;
+        if(before == null)
+            head = node;
+        else
+            before.after = node;
+        if(after == null)
+            tail = node;
+        else
+            after.before = node;
+        label(node);
+
+        // thread the node onto its requester's lane
+        Lane lane = lanes.computeIfAbsent(node.identifier, id -> new Lane());
+        lane.nodes.add(node);
+        count(node, lane, 1);
+        node.lanePrev = lane.nodes.lower(node);
+        node.laneNext = lane.nodes.higher(node);
+        if(node.lanePrev != null)
+            node.lanePrev.laneNext = node;
+        if(node.laneNext != null)
+            node.laneNext.lanePrev = node;
+
+        // hang the node in the tree as a leaf, then rotate it up to restore heap order
+        if(root == null)
+            root = node;
+        else if(after != null && after.left == null)
+        {
+            after.left = node;
+            node.parent = after;
+        }
+        else
+        {
+            before.right = node;
+            node.parent = before;
+        }
+        while(node.parent != null && node.parent.priority < node.priority)
+            rotateUp(node);
+        pullToRoot(node);
+        if(node.laneNext != null)
+            pullToRoot(node.laneNext);
+        snapshot = snapshot.withInsert(index, item, node.length, node.priority);
+        return node;
+    }
+
+    private void build(Collection<? extends T> items)
+    {
+        long spacing = Math.min(APPEND_GAP, LABEL_LIMIT / (items.size() + 1));
+        Map<Long, Node> laneTails = new HashMap<>();
+        Deque<Node> spine = new ArrayDeque<>();
+        for(T item : items)
+        {
+            Node node = new Node(item);
+            node.before = tail;
+            if(tail == null)
+                head = node;
+            else
+                tail.after = node;
+            tail = node;
+            node.label = node.before == null ? spacing : node.before.label + spacing;
+
+            node.lanePrev = laneTails.put(node.identifier, node);
+            if(node.lanePrev != null)
+                node.lanePrev.laneNext = node;
+            Lane lane = lanes.computeIfAbsent(node.identifier, id -> new Lane());
+            lane.nodes.add(node);
+            count(node, lane, 1);
+
+            // items arrive in order, so the treap can be built along its right spine
+            Node popped = null;
+            while(!spine.isEmpty() && spine.peek().priority < node.priority)
+                popped = spine.pop();
+            node.left = popped;
+            if(popped != null)
+                popped.parent = node;
+            if(!spine.isEmpty())
+            {
+                spine.peek().right = node;
+                node.parent = spine.peek();
+            }
+            spine.push(node);
+        }
+        root = spine.peekLast();
+        pullAll(root);
+        snapshot = snapshot.withRoot(copy(root));
+    }
+
+    private QueueSnapshot.Node<T> copy(Node node)
+    {
+        if(node == null)
+            return null;
+        return new QueueSnapshot.Node<>(node.item, node.length, node.priority, copy(node.left), copy(node.right));
+    }
+
+    private void pullAll(Node node)
+    {
+        if(node == null)
+            return;
+        pullAll(node.left);
+        pullAll(node.right);
+        pull(node);
+    }
+
+    private void unlink(Node node)
+    {
+        snapshot = snapshot.withRemove(indexOf(node));
+
+        // sink the node down to a leaf and cut it off
+        while(node.left != null || node.right != null)
+        {
+            Node child = node.left == null ? node.right
+                    : node.right == null ? node.left
+                    : node.left.priority > node.right.priority ? node.left : node.right;
+            rotateUp(child);
+        }
+        Node parent = node.parent;
+        if(parent == null)
+            root = null;
+        else if(parent.left == node)
+            parent.left = null;
+        else
+            parent.right = null;
+        node.parent = null;
+        pullToRoot(parent);
+
+        // then take it off its requester's lane; the next entry on the lane now
+        // repeats an earlier one, so its side of the tree needs pulling too
+        Lane lane = lanes.get(node.identifier);
+        lane.nodes.remove(node);
+        count(node, lane, -1);
+        if(lane.nodes.isEmpty())
+            lanes.remove(node.identifier);
+        Node laneNext = node.laneNext;
+        if(node.lanePrev != null)
+            node.lanePrev.laneNext = laneNext;
+        if(laneNext != null)
+        {
+            laneNext.lanePrev = node.lanePrev;
+            pullToRoot(laneNext);
+        }
+        node.lanePrev = node.laneNext = null;
+
+        // and finally out of list order
+        if(node.before == null)
+            head = node.after;
+        else
+            node.before.after = node.after;
+        if(node.after == null)
+            tail = node.before;
+        else
+            node.after.before = node.before;
+    }
+
+    // adds the node's length to its lane's running totals and its item to the
+    // duplicate keys, or takes them back off
+    private void count(Node node, Lane lane, int sign)
+    {
+        if(node.length == Long.MAX_VALUE)
+            lane.live += sign;
+        else
+            lane.duration += sign * node.length;
+        String key = node.item.getDuplicateKey();
+        if(key != null)
+            duplicateKeys.merge(key, sign, (a, b) -> a + b == 0 ? null : a + b);
+    }
+
+    private void rotateUp(Node node)
+    {
+        Node parent = node.parent;
+        Node grand = parent.parent;
+        if(parent.left == node)
+        {
+            parent.left = node.right;
+            if(node.right != null)
+                node.right.parent = parent;
+            node.right = parent;
+        }
+        else
+        {
+            parent.right = node.left;
+            if(node.left != null)
+                node.left.parent = parent;
+            node.left = parent;
+        }
+        parent.parent = node;
+        node.parent = grand;
+        if(grand == null)
+            root = node;
+        else if(grand.left == parent)
+            grand.left = node;
+        else
+            grand.right = node;
+        pull(parent);
+        pull(node);
+    }
+
+    private void pullToRoot(Node node)
+    {
+        for(; node != null; node = node.parent)
+            pull(node);
+    }
+
+    private void pull(Node node)
+    {
+        node.size = 1 + size(node.left) + size(node.right);
+        boolean live = node.length == Long.MAX_VALUE;
+        node.duration = (live ? 0 : node.length) + duration(node.left) + duration(node.right);
+        node.live = (live ? 1 : 0) + live(node.left) + live(node.right);
+        node.maxKey = Math.max(node.key, Math.max(maxKey(node.left), maxKey(node.right)));
+        Node repeat = node.lanePrev == null ? null : node;
+        if(node.left != null)
+            repeat = repeatsLater(repeat, node.left.repeat);
+        if(node.right != null)
+            repeat = repeatsLater(repeat, node.right.repeat);
+        node.repeat = repeat;
+    }
+
+    // of two repeating entries, picks the one whose previous lane entry is later in the list
+    private Node repeatsLater(Node a, Node b)
+    {
+        if(a == null)
+            return b;
+        if(b == null)
+            return a;
+        return a.lanePrev.label > b.lanePrev.label ? a : b;
+    }
+
+    private int size(Node node)
+    {
+        return node == null ? 0 : node.size;
+    }
+
+    private long duration(Node node)
+    {
+        return node == null ? 0 : node.duration;
+    }
+
+    private int live(Node node)
+    {
+        return node == null ? 0 : node.live;
+    }
+
+    private long maxKey(Node node)
+    {
+        return node == null ? Long.MIN_VALUE : node.maxKey;
+    }
+
+    /*
+     * Order labels let two entries be compared by list position in O(1), which
+     * is what keeps the lanes and the repeat index cheap. A new entry takes the
+     * midpoint between its neighbours; when there is no room left, the smallest
+     * aligned label range around it that is sparse enough gets spread out evenly
+     * (Bender et al.), which costs O(log n) amortized per insert.
+     */
+    private void label(Node node)
+    {
+        long low = node.before == null ? -1 : node.before.label;
+        long high = node.after == null ? LABEL_LIMIT : node.after.label;
+        if(high - low > 1)
+        {
+            if(node.after == null)
+                node.label = low + Math.min((high - low) / 2, APPEND_GAP);
+            else if(node.before == null)
+                node.label = high - Math.min((high - low) / 2, APPEND_GAP);
+            else
+                node.label = low + (high - low) / 2;
+            return;
+        }
+        Node anchor = node.before != null ? node.before : node.after;
+        for(int bits = 1; bits < 63; bits++)
+        {
+            long width = 1L << bits;
+            long start = anchor.label & -width;
+            long end = start + width;
+            int count = 1;
+            Node first = node;
+            while(first.before != null && first.before.label >= start)
+            {
+                first = first.before;
+                count++;
+            }
+            Node last = node;
+            while(last.after != null && last.after.label < end)
+            {
+                last = last.after;
+                count++;
+            }
+            if(count > Math.pow(RELABEL_DENSITY, bits))
+                continue;
+            long spacing = width / count;
+            long label = start;
+            for(Node n = first; n != last.after; n = n.after, label += spacing)
+                n.label = label;
+            return;
+        }
+        throw new IllegalStateException("Too many entries to keep in order");
+    }
+
+    private final class Node
+    {
+        private final long identifier;
+        private final int priority = random.nextInt();
+        private T item;
+        private long length;                // this entry's own length
+        private int size = 1;
+        private long duration;              // known length of the subtree
+        private int live;                   // entries in the subtree with no known length
+        private long key = Long.MIN_VALUE;  // sort key given by the queue type, if any
+        private long maxKey;                // largest key in the subtree
+        private long label;
+        private Node left, right, parent;   // tree links
+        private Node before, after;         // neighbours in list order
+        private Node lanePrev, laneNext;    // neighbours from the same requester
+        private Node repeat;                // entry in this subtree whose lanePrev is latest in the list
+
+        private Node(T item)
+        {
+            this.item = item;
+            this.identifier = item.getIdentifier();
+            this.length = item.getDuration();
+        }
+    }
+
+    // a requester's entries in list order, with running totals over them
+    private final class Lane
+    {
+        private final TreeSet<Node> nodes = new TreeSet<>(labelOrder);
+        private long duration;
+        private int live;
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.queue;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * An immutable copy of a queue's entries at one point in time.
+ *
+ * Snapshots are persistent treaps: each change to the queue produces a new
+ * snapshot that copies only the O(log n) nodes on the paths it touched and
+ * shares the rest with the previous one. Taking a snapshot is O(1) and needs
+ * no lock, so it can be read from any thread while the queue keeps changing.
+ *
+ * @author Alex Yau (TheMajoris)
+ * @param <T>
+ */
+public final class QueueSnapshot<T extends Queueable> extends AbstractList<T> implements RandomAccess
+{
+    private final Node<T> root;
+    private final long version;
+
+    private QueueSnapshot(Node<T> root, long version)
+    {
+        this.root = root;
+        this.version = version;
+    }
+
+    static <T extends Queueable> QueueSnapshot<T> empty()
+    {
+        return new QueueSnapshot<>(null, 0);
+    }
+
+    /**
+     * @return a number that goes up with every change to the queue, so two
+     *         snapshots of the same queue can be told apart cheaply
+     */
+    public long getVersion()
+    {
+        return version;
+    }
+
+    @Override
+    public T get(int index)
+    {
+        if(index < 0 || index >= size())
+            throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size());
+        Node<T> node = root;
+        while(true)
+        {
+            int left = size(node.left);
+            if(index < left)
+                node = node.left;
+            else if(index == left)
+                return node.item;
+            else
+            {
+                index -= left + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    @Override
+    public int size()
+    {
+        return size(root);
+    }
+
+    /**
+     * @return the total length of the entries whose length is known, in milliseconds
+     */
+    public long getDuration()
+    {
+        return root == null ? 0 : root.duration;
+    }
+
+    /**
+     * @return how many entries have no known length, such as live streams
+     */
+    public int getLiveCount()
+    {
+        return root == null ? 0 : root.live;
+    }
+
+    /**
+     * @param index an index in the snapshot, or its size
+     * @return the total length of the entries before the index, or
+     *         {@link Long#MAX_VALUE} if one of them has no known length
+     */
+    public long timeUntil(int index)
+    {
+        if(index < 0 || index > size())
+            throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size());
+        long time = 0;
+        int live = 0;
+        Node<T> node = root;
+        while(node != null)
+        {
+            if(index <= size(node.left))
+                node = node.left;
+            else
+            {
+                time += duration(node.left) + (node.length == Long.MAX_VALUE ? 0 : node.length);
+                live += live(node.left) + (node.length == Long.MAX_VALUE ? 1 : 0);
+                index -= size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return live > 0 ? Long.MAX_VALUE : time;
+    }
+
+    @Override
+    public Iterator<T> iterator()
+    {
+        return new Iterator<T>()
+        {
+            private final Deque<Node<T>> path = new ArrayDeque<>();
+
+            {
+                descend(root);
+            }
+
+            private void descend(Node<T> node)
+            {
+                for(; node != null; node = node.left)
+                    path.push(node);
+            }
+
+            @Override
+            public boolean hasNext()
+            {
+                return !path.isEmpty();
+            }
+
+            @Override
+            public T next()
+            {
+                if(path.isEmpty())
+                    throw new NoSuchElementException();
+                Node<T> node = path.pop();
+                descend(node.right);
+                return node.item;
+            }
+        };
+    }
+
+    // the queue list keeps its snapshot in step through these; the priority
+    // is the one of the list's own node, so both trees have the same shape
+
+    QueueSnapshot<T> withInsert(int index, T item, long length, int priority)
+    {
+        Node<T>[] parts = split(root, index);
+        Node<T> node = new Node<>(item, length, priority, null, null);
+        return new QueueSnapshot<>(merge(merge(parts[0], node), parts[1]), version + 1);
+    }
+
+    QueueSnapshot<T> withRemove(int index)
+    {
+        Node<T>[] parts = split(root, index);
+        return new QueueSnapshot<>(merge(parts[0], split(parts[1], 1)[1]), version + 1);
+    }
+
+    QueueSnapshot<T> withSet(int index, T item, long length)
+    {
+        return new QueueSnapshot<>(set(root, index, item, length), version + 1);
+    }
+
+    QueueSnapshot<T> withRoot(Node<T> root)
+    {
+        return new QueueSnapshot<>(root, version + 1);
+    }
+
+    private static <T extends Queueable> Node<T>[] split(Node<T> node, int index)
+    {
+        @SuppressWarnings("unchecked")
+        Node<T>[] parts = (Node<T>[]) new Node<?>[2];
+        if(node == null)
+            return parts;
+        if(index <= size(node.left))
+        {
+            Node<T>[] left = split(node.left, index);
+            parts[0] = left[0];
+            parts[1] = node.with(left[1], node.right);
+        }
+        else
+        {
+            Node<T>[] right = split(node.right, index - size(node.left) - 1);
+            parts[0] = node.with(node.left, right[0]);
+            parts[1] = right[1];
+        }
+        return parts;
+    }
+
+    private static <T extends Queueable> Node<T> merge(Node<T> a, Node<T> b)
+    {
+        if(a == null)
+            return b;
+        if(b == null)
+            return a;
+        if(a.priority > b.priority)
+            return a.with(a.left, merge(a.right, b));
+        return b.with(merge(a, b.left), b.right);
+    }
+
+    private static <T extends Queueable> Node<T> set(Node<T> node, int index, T item, long length)
+    {
+        int left = size(node.left);
+        if(index < left)
+            return node.with(set(node.left, index, item, length), node.right);
+        if(index > left)
+            return node.with(node.left, set(node.right, index - left - 1, item, length));
+        return new Node<>(item, length, node.priority, node.left, node.right);
+    }
+
+    private static int size(Node<?> node)
+    {
+        return node == null ? 0 : node.size;
+    }
+
+    private static long duration(Node<?> node)
+    {
+        return node == null ? 0 : node.duration;
+    }
+
+    private static int live(Node<?> node)
+    {
+        return node == null ? 0 : node.live;
+    }
+
+    static final class Node<T extends Queueable>
+    {
+        private final T item;
+        private final int priority;
+        private final long length;
+        private final Node<T> left, right;
+        private final int size;
+        private final long duration;
+        private final int live;
+
+        Node(T item, long length, int priority, Node<T> left, Node<T> right)
+        {
+            this.item = item;
+            this.length = length;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            boolean unknown = length == Long.MAX_VALUE;
+            this.size = 1 + size(left) + size(right);
+            this.duration = (unknown ? 0 : length) + duration(left) + duration(right);
+            this.live = (unknown ? 1 : 0) + live(left) + live(right);
+        }
+
+        private Node<T> with(Node<T> left, Node<T> right)
+        {
+            return new Node<>(item, length, priority, left, right);
+        }
+    }
+}
@@ -22,4 +22,22 @@ package com.jagrosh.jmusicbot.queue;
 public interface Queueable {
     
     public long getIdentifier();
+    
+    /**
+     * @return how long this entry plays for in milliseconds, or
+     *         {@link Long#MAX_VALUE} if that isn't known (e.g. a live stream)
+     */
+    public default long getDuration()
+    {
+        return 0;
+    }
+    
+    /**
+     * @return what this entry plays, so the same thing queued twice can be
+     *         spotted, or null if entries are never duplicates of each other
+     */
+    public default String getDuplicateKey()
+    {
+        return null;
+    }
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.queue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A fair queue that shares listening time between requesters rather than
+ * turns, so someone queuing hour-long mixes doesn't hold up everyone queuing
+ * short songs.
+ *
+ * Each requester has a clock of how much time they have queued. A new entry is
+ * stamped with the time its requester's clock (or the queue's, if that is
+ * later) has reached, and goes behind every entry with an earlier or equal
+ * stamp. This is deficit round robin with the quantum taken to the limit,
+ * better known as start-time fair queuing. Finding the spot is a single walk
+ * down the queue's tree, so adds and pulls are both O(log n).
+ *
+ * Entries placed by hand, with {@link #addAt} or {@link #moveItem}, carry no
+ * stamp; they stay where they were put and new entries are placed around them.
+ * Switching to this queue places the entries already queued by these rules.
+ *
+ * @author Alex Yau (TheMajoris)
+ * @param <T>
+ */
+public class WeightedFairQueue<T extends Queueable> extends AbstractQueue<T>
+{
+    // a stream of unknown length is charged as if it ran this long
+    private final static long UNKNOWN_LENGTH = TimeUnit.HOURS.toMillis(1);
+
+    private final Map<Long, Long> played = new HashMap<>();
+    private long clock = 0;
+
+    public WeightedFairQueue(AbstractQueue<T> queue)
+    {
+        super(null);
+        // each entry is placed as if it were added now, so the stamps stay
+        // in order along the list, which indexAfter relies on
+        if(queue != null)
+            for(T item : queue.snapshot())
+                add(item);
+    }
+
+    @Override
+    public synchronized int add(T item)
+    {
+        long start = start(item.getIdentifier());
+        int index = list.indexAfter(start);
+        list.add(index, item, start);
+        return index;
+    }
+
+    @Override
+    public synchronized T pull()
+    {
+        long start = list.keyAt(0);
+        T item = list.remove(0);
+        if(start != Long.MIN_VALUE)
+        {
+            clock = Math.max(clock, start);
+            played.put(item.getIdentifier(), start + charge(item));
+        }
+        if(list.isEmpty())
+            played.values().removeIf(finish -> finish <= clock);
+        return item;
+    }
+
+    @Override
+    public synchronized void clear()
+    {
+        super.clear();
+        played.clear();
+    }
+
+    // the stamp for a requester's next entry: where their last one finishes,
+    // but never earlier than the entry that last started playing
+    private long start(long identifier)
+    {
+        long finish = played.getOrDefault(identifier, Long.MIN_VALUE);
+        int last = list.lastIndexOf(identifier);
+        if(last >= 0 && list.keyAt(last) != Long.MIN_VALUE)
+            finish = list.keyAt(last) + charge(list.get(last));
+        return Math.max(finish, clock);
+    }
+
+    private static long charge(Queueable item)
+    {
+        long length = item.getDuration();
+        return length == Long.MAX_VALUE ? UNKNOWN_LENGTH : Math.max(length, 0);
+    }
+}
@@ -20,6 +20,7 @@ import com.jagrosh.jmusicbot.queue.FairQueue;
 import com.jagrosh.jmusicbot.queue.LinearQueue;
 import com.jagrosh.jmusicbot.queue.Queueable;
 import com.jagrosh.jmusicbot.queue.QueueSupplier;
+import com.jagrosh.jmusicbot.queue.WeightedFairQueue;
 
 import java.util.Arrays;
 import java.util.List;
@@ -32,7 +33,8 @@ import java.util.stream.Collectors;
 public enum QueueType
 {
     LINEAR("\u23E9", "Linear", LinearQueue::new),     // ⏩
-    FAIR("\uD83D\uDD22", "Fair", FairQueue::new);     // 🔢
+    FAIR("\uD83D\uDD22", "Fair", FairQueue::new),     // 🔢
+    WEIGHTED("\u2696", "Weighted Fair", WeightedFairQueue::new); // ⚖
 
     private final String userFriendlyName;
     private final String emoji;
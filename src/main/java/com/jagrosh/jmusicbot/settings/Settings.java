@@ -39,8 +39,9 @@ public class Settings implements GuildSettingsProvider
     private QueueType queueType;
     private String prefix;
     private double skipRatio;
+    private boolean skipDuplicates;
 
-    public Settings(SettingsManager manager, String textId, String voiceId, String roleId, int volume, String defaultPlaylist, RepeatMode repeatMode, String prefix, double skipRatio, QueueType queueType)
+    public Settings(SettingsManager manager, String textId, String voiceId, String roleId, int volume, String defaultPlaylist, RepeatMode repeatMode, String prefix, double skipRatio, QueueType queueType, boolean skipDuplicates)
     {
         this.manager = manager;
         try
@@ -73,9 +74,10 @@ public class Settings implements GuildSettingsProvider
         this.prefix = prefix;
         this.skipRatio = skipRatio;
         this.queueType = queueType;
+        this.skipDuplicates = skipDuplicates;
     }
     
-    public Settings(SettingsManager manager, long textId, long voiceId, long roleId, int volume, String defaultPlaylist, RepeatMode repeatMode, String prefix, double skipRatio, QueueType queueType)
+    public Settings(SettingsManager manager, long textId, long voiceId, long roleId, int volume, String defaultPlaylist, RepeatMode repeatMode, String prefix, double skipRatio, QueueType queueType, boolean skipDuplicates)
     {
         this.manager = manager;
         this.textId = textId;
@@ -87,6 +89,7 @@ public class Settings implements GuildSettingsProvider
         this.prefix = prefix;
         this.skipRatio = skipRatio;
         this.queueType = queueType;
+        this.skipDuplicates = skipDuplicates;
     }
     
     // Getters
@@ -135,6 +138,11 @@ public class Settings implements GuildSettingsProvider
         return queueType;
     }
 
+    public boolean isSkipDuplicates()
+    {
+        return skipDuplicates;
+    }
+
     @Override
     public Collection<String> getPrefixes()
     {
@@ -195,4 +203,10 @@ public class Settings implements GuildSettingsProvider
         this.queueType = queueType;
         this.manager.writeSettings();
     }
+
+    public void setSkipDuplicates(boolean skipDuplicates)
+    {
+        this.skipDuplicates = skipDuplicates;
+        this.manager.writeSettings();
+    }
 }
@@ -30,6 +30,27 @@ public class TimeUtil
         return (hours>0 ? hours+":" : "") + (minutes<10 ? "0"+minutes : minutes) + ":" + (seconds<10 ? "0"+seconds : seconds);
     }
 
+    /**
+     * Formats the length of a group of tracks, some of which may be live
+     * @param duration total length of the tracks with a known length
+     * @param live number of tracks without a known length
+     * @return the formatted time, noting any live tracks
+     */
+    public static String formatTime(long duration, int live)
+    {
+        return formatTime(duration) + (live > 0 ? " + " + live + " live" : "");
+    }
+
+    /**
+     * Formats how long until something plays
+     * @param wait the wait in milliseconds, or Long.MAX_VALUE if a live track is ahead
+     * @return the formatted wait
+     */
+    public static String formatWait(long wait)
+    {
+        return wait == Long.MAX_VALUE ? "after live" : formatTime(wait);
+    }
+
     /**
      * Parses a seek time string into milliseconds and determines if it's relative.
      * Supports "colon time" (HH:MM:SS) or "unit time" (1h20m)
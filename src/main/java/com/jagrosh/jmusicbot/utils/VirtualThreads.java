@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot.utils;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Virtual threads, when the bot runs on Java 21 or newer. The bot is built
+ * for Java 11, so the API is looked up at runtime.
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class VirtualThreads
+{
+    /**
+     * @return whether this Java has virtual threads
+     */
+    public static boolean isSupported()
+    {
+        return Runtime.version().feature() >= 21;
+    }
+
+    /**
+     * Virtual threads that block in a synchronized block, as lavaplayer's
+     * frame buffers do, hold on to their carrier thread before Java 24.
+     *
+     * @return whether virtual threads can wait in synchronized blocks freely
+     */
+    public static boolean isPinningFixed()
+    {
+        return Runtime.version().feature() >= 24;
+    }
+
+    /**
+     * @param name the prefix of the threads' names, which are numbered
+     * @return a factory of virtual threads
+     * @throws UnsupportedOperationException if this Java has no virtual threads
+     */
+    public static ThreadFactory factory(String name)
+    {
+        try
+        {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> type = Class.forName("java.lang.Thread$Builder");
+            builder = type.getMethod("name", String.class, long.class).invoke(builder, name + "-", 0L);
+            return (ThreadFactory) type.getMethod("factory").invoke(builder);
+        }
+        catch(ReflectiveOperationException e)
+        {
+            throw new UnsupportedOperationException("Virtual threads need Java 21, this is Java " + Runtime.version().feature(), e);
+        }
+    }
+
+    /**
+     * Has a thread pool start virtual threads from now on. Threads it has
+     * already started carry on until they time out.
+     */
+    public static void adopt(ThreadPoolExecutor executor, String name)
+    {
+        executor.setThreadFactory(factory(name));
+    }
+}
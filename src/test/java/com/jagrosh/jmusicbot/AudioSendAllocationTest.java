@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot;
+
+import com.jagrosh.jmusicbot.audio.PlayerManager;
+import com.sedmelluq.discord.lavaplayer.format.AudioDataFormat;
+import com.sedmelluq.discord.lavaplayer.format.StandardAudioDataFormats;
+import com.sedmelluq.discord.lavaplayer.track.playback.AudioFrame;
+import com.sedmelluq.discord.lavaplayer.track.playback.AudioFrameBuffer;
+import com.sedmelluq.discord.lavaplayer.track.playback.ImmutableAudioFrame;
+import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+
+/**
+ * Runs frames through the frame buffer the player manager configures and out
+ * the way the audio handler sends them, and checks that once warmed up this
+ * allocates nothing at all.
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class AudioSendAllocationTest
+{
+    private final static int WARMUP_FRAMES = 20_000;
+    private final static int FRAMES = 100_000;
+
+    @Test
+    public void sendingFramesAllocatesNothing() throws InterruptedException
+    {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        PlayerManager manager = new PlayerManager(null);
+        try
+        {
+            AudioDataFormat format = StandardAudioDataFormats.DISCORD_OPUS;
+            AudioFrameBuffer buffer = manager.getConfiguration().getFrameBufferFactory()
+                    .create(manager.getFrameBufferDuration(), format, new AtomicBoolean());
+            AudioFrame decoded = new ImmutableAudioFrame(0, new byte[format.maximumChunkSize() / 2], 100, format);
+
+            // the same setup as the audio handler
+            ByteBuffer sendBuffer = ByteBuffer.allocate(format.maximumChunkSize());
+            MutableAudioFrame frame = new MutableAudioFrame();
+            frame.setBuffer(sendBuffer);
+
+            long sent = send(buffer, decoded, frame, sendBuffer, WARMUP_FRAMES);
+            long thread = Thread.currentThread().getId();
+            long before = threads.getThreadAllocatedBytes(thread);
+            sent += send(buffer, decoded, frame, sendBuffer, FRAMES);
+            long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+            assertEquals(WARMUP_FRAMES + FRAMES, sent);
+            assertEquals("bytes allocated per frame", 0, allocated / FRAMES);
+        }
+        finally
+        {
+            manager.shutdown();
+        }
+    }
+
+    // returns the total length of what was sent, in frames, so the JIT can't skip any of it
+    private static long send(AudioFrameBuffer buffer, AudioFrame decoded, MutableAudioFrame frame, ByteBuffer sendBuffer, int frames) throws InterruptedException
+    {
+        long sent = 0;
+        for(int i=0; i<frames; i++)
+        {
+            buffer.consume(decoded);
+            if(buffer.provide(frame))
+                sent += sendBuffer.flip().remaining() / decoded.getDataLength();
+        }
+        return sent;
+    }
+}
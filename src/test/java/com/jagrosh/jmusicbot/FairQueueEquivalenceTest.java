@@ -0,0 +1,222 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot;
+
+import com.jagrosh.jmusicbot.queue.AbstractQueue;
+import com.jagrosh.jmusicbot.queue.FairQueue;
+import com.jagrosh.jmusicbot.queue.LinearQueue;
+import com.jagrosh.jmusicbot.queue.Queueable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Checks that FairQueue places every entry exactly where the original linear
+ * scan would have, across randomized mixes of every queue operation.
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class FairQueueEquivalenceTest
+{
+    @Test
+    public void singleRequester()
+    {
+        runWorkload(1, 1, 2000);
+    }
+
+    @Test
+    public void fewRequesters()
+    {
+        for(long seed=0; seed<20; seed++)
+            runWorkload(seed, 3, 2000);
+    }
+
+    @Test
+    public void manyRequesters()
+    {
+        for(long seed=0; seed<10; seed++)
+            runWorkload(seed, 50, 3000);
+    }
+
+    @Test
+    public void playlistDumpIntoBusyQueue()
+    {
+        FairQueue<Q> fair = new FairQueue<>(null);
+        ReferenceFairQueue<Q> reference = new ReferenceFairQueue<>();
+        for(int i=0; i<200; i++)
+            assertSameAdd(fair, reference, new Q(i % 20));
+        for(int i=0; i<2000; i++)
+            assertSameAdd(fair, reference, new Q(99));
+        for(int i=0; i<200; i++)
+            assertSameAdd(fair, reference, new Q(i % 30));
+        assertEquals(reference.getList(), fair.getList());
+    }
+
+    @Test
+    public void batchesMatchSingleAdds()
+    {
+        Random random = new Random(3);
+        FairQueue<Q> fair = new FairQueue<>(null);
+        ReferenceFairQueue<Q> reference = new ReferenceFairQueue<>();
+        for(int round=0; round<60; round++)
+        {
+            long identifier = random.nextInt(12);
+            int count = random.nextInt(4) == 0 ? random.nextInt(400) : random.nextInt(6);
+            List<Q> batch = new ArrayList<>();
+            for(int i=0; i<count; i++)
+                batch.add(new Q(round % 7 == 0 ? random.nextInt(12) : identifier));
+            int[] expected = new int[count];
+            for(int i=0; i<count; i++)
+                expected[i] = reference.add(batch.get(i));
+            assertArrayEquals("round " + round, expected, fair.addAll(batch));
+            assertEquals("round " + round, reference.getList(), fair.getList());
+            for(int i=random.nextInt(50); i>0 && !reference.isEmpty(); i--)
+                assertSame(reference.pull(), fair.pull());
+        }
+    }
+
+    @Test
+    public void switchingFromLinear()
+    {
+        Random random = new Random(7);
+        LinearQueue<Q> linear = new LinearQueue<>(null);
+        ReferenceFairQueue<Q> reference = new ReferenceFairQueue<>();
+        for(int i=0; i<500; i++)
+        {
+            Q q = new Q(random.nextInt(8));
+            linear.add(q);
+            reference.addAt(reference.size(), q);
+        }
+        FairQueue<Q> fair = new FairQueue<>(linear);
+        assertEquals(reference.getList(), fair.getList());
+        for(int i=0; i<500; i++)
+            assertSameAdd(fair, reference, new Q(random.nextInt(10)));
+        assertEquals(reference.getList(), fair.getList());
+    }
+
+    private void runWorkload(long seed, int requesters, int operations)
+    {
+        Random random = new Random(seed);
+        FairQueue<Q> fair = new FairQueue<>(null);
+        ReferenceFairQueue<Q> reference = new ReferenceFairQueue<>();
+        for(int op=0; op<operations; op++)
+        {
+            int roll = random.nextInt(100);
+            int size = reference.size();
+            if(roll < 60 || size == 0)
+            {
+                assertSameAdd(fair, reference, new Q(random.nextInt(requesters)));
+            }
+            else if(roll < 72)
+            {
+                assertSame(reference.pull(), fair.pull());
+            }
+            else if(roll < 80)
+            {
+                int index = random.nextInt(size);
+                assertSame(reference.remove(index), fair.remove(index));
+            }
+            else if(roll < 86)
+            {
+                int index = random.nextInt(size + 1);
+                Q q = new Q(random.nextInt(requesters));
+                reference.addAt(index, q);
+                fair.addAt(index, q);
+            }
+            else if(roll < 93)
+            {
+                int from = random.nextInt(size);
+                int to = random.nextInt(size);
+                assertSame(reference.moveItem(from, to), fair.moveItem(from, to));
+            }
+            else if(roll < 97)
+            {
+                long identifier = random.nextInt(requesters);
+                assertEquals(reference.removeAll(identifier), fair.removeAll(identifier));
+            }
+            else
+            {
+                int number = random.nextInt(Math.min(size, 5) + 1);
+                reference.skip(number);
+                fair.skip(number);
+            }
+            assertEquals("seed " + seed + ", operation " + op, reference.getList(), fair.getList());
+        }
+    }
+
+    private void assertSameAdd(FairQueue<Q> fair, ReferenceFairQueue<Q> reference, Q item)
+    {
+        assertEquals(reference.add(item), fair.add(item));
+    }
+
+    /**
+     * The LinkedList scan FairQueue used before it had per-requester lanes.
+     */
+    private static class ReferenceFairQueue<T extends Queueable> extends AbstractQueue<T>
+    {
+        private final Set<Long> set = new HashSet<>();
+
+        private ReferenceFairQueue()
+        {
+            super(null);
+        }
+
+        @Override
+        public int add(T item)
+        {
+            int lastIndex;
+            for(lastIndex=list.size()-1; lastIndex>-1; lastIndex--)
+                if(list.get(lastIndex).getIdentifier() == item.getIdentifier())
+                    break;
+            lastIndex++;
+            set.clear();
+            for(; lastIndex<list.size(); lastIndex++)
+            {
+                if(set.contains(list.get(lastIndex).getIdentifier()))
+                    break;
+                set.add(list.get(lastIndex).getIdentifier());
+            }
+            list.add(lastIndex, item);
+            return lastIndex;
+        }
+    }
+
+    private static class Q implements Queueable
+    {
+        private final long identifier;
+
+        private Q(long identifier)
+        {
+            this.identifier = identifier;
+        }
+
+        @Override
+        public long getIdentifier()
+        {
+            return identifier;
+        }
+
+        @Override
+        public String toString()
+        {
+            return Long.toString(identifier);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot;
+
+import com.jagrosh.jmusicbot.audio.FrameBufferBudget;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class FrameBufferBudgetTest
+{
+    @Test
+    public void reservationsFitUnderTheCap()
+    {
+        FrameBufferBudget budget = new FrameBufferBudget(FrameBufferBudget.bytesFor(10000));
+        assertEquals(8000, budget.reserve(1, 8000));
+        // only 2000ms are left, so a 5000ms request is halved until it fits
+        assertEquals(1250, budget.reserve(2, 5000));
+        assertEquals(625, budget.reserve(3, 5000));
+        assertTrue(budget.getUsed() <= budget.getCapacity());
+        // the minimum is always granted, even past the cap
+        assertEquals(FrameBufferBudget.MIN_DURATION, budget.reserve(4, 5000));
+    }
+
+    @Test
+    public void reservingAgainReplacesTheOldReservation()
+    {
+        FrameBufferBudget budget = new FrameBufferBudget(FrameBufferBudget.bytesFor(10000));
+        budget.reserve(1, 8000);
+        assertEquals(8000, budget.reserve(1, 8000));
+        assertEquals(FrameBufferBudget.bytesFor(8000), budget.getUsed());
+        budget.release(1);
+        assertEquals(0, budget.getUsed());
+        budget.release(1);
+        assertEquals(0, budget.getUsed());
+    }
+
+    @Test
+    public void standbyBuffersAreCountedSeparately()
+    {
+        FrameBufferBudget budget = new FrameBufferBudget(2 * FrameBufferBudget.bytesFor(5000));
+        budget.reserve(1, 5000);
+        assertEquals(5000, budget.reserveStandby(1, 5000));
+        assertEquals(2 * FrameBufferBudget.bytesFor(5000), budget.getUsed());
+        // the standby only gets what the playing buffer leaves under the cap
+        budget.releaseStandby(1);
+        budget.reserve(1, 8000);
+        assertEquals(2000, budget.reserveStandby(1, 8000));
+
+        // switching to the standby drops the old player's reservation
+        budget.promoteStandby(1);
+        assertEquals(FrameBufferBudget.bytesFor(2000), budget.getUsed());
+        budget.release(1);
+        assertEquals(0, budget.getUsed());
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot;
+
+import com.jagrosh.jmusicbot.audio.FrameCache;
+import com.jagrosh.jmusicbot.audio.FrameRecorder;
+import com.jagrosh.jmusicbot.audio.FrameSegment;
+import com.jagrosh.jmusicbot.audio.ReplayBuffer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class FrameCacheTest
+{
+    private Path folder;
+
+    @Before
+    public void createFolder() throws IOException
+    {
+        folder = Files.createTempDirectory("framecache");
+    }
+
+    @After
+    public void deleteFolder() throws IOException
+    {
+        try(Stream<Path> paths = Files.walk(folder))
+        {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Test
+    public void recordingReadsBackFrameByFrame() throws IOException
+    {
+        byte[] segment = bytes(record("a", 100, 2000));
+        FrameSegment read = FrameSegment.read(ByteBuffer.wrap(segment));
+        assertEquals(100, read.getFrameCount());
+        assertEquals(2000, read.getDuration());
+        assertEquals(50, read.frameAt(1000));
+        byte[] data = new byte[1024];
+        for(int i=0; i<100; i++)
+        {
+            assertEquals(frameLength(i), read.read(i, data));
+            assertEquals((byte) i, data[0]);
+        }
+    }
+
+    @Test
+    public void seekOrVolumeSpoilsARecording()
+    {
+        ReplayBuffer.Pool pool = new ReplayBuffer.Pool(1024 * 1024);
+        FrameRecorder recorder = new FrameRecorder(pool, 1000);
+        byte[] frame = new byte[10];
+        recorder.begin("a");
+        recorder.append(frame, 10, 0, 100);
+        recorder.append(frame, 10, 5000, 100);
+        assertNull(recorder.getKey());
+        assertNull(recorder.finish(40));
+
+        recorder.begin("b");
+        recorder.append(frame, 10, 0, 100);
+        recorder.append(frame, 10, 20, 50);
+        assertNull(recorder.finish(40));
+
+        // stopped halfway through
+        recorder.begin("c");
+        recorder.append(frame, 10, 0, 100);
+        assertNull(recorder.finish(60_000));
+        assertEquals(0, pool.getUsed());
+    }
+
+    @Test
+    public void recordingsTakeTheirMemoryFromThePool() throws IOException
+    {
+        ReplayBuffer.Pool pool = new ReplayBuffer.Pool(2 * ReplayBuffer.CHUNK_BYTES);
+        FrameRecorder recorder = new FrameRecorder(pool, 1000);
+        byte[] frame = new byte[1000];
+        // two hundred kilobyte frames don't fit in two chunks, so the recording is given up
+        recorder.begin("a");
+        for(int i=0; i<200; i++)
+            recorder.append(frame, frame.length, i * FrameSegment.FRAME_MILLIS, 100);
+        assertNull(recorder.getKey());
+        assertEquals(0, pool.getUsed());
+
+        recorder.begin("b");
+        for(int i=0; i<100; i++)
+            recorder.append(frame, 100, i * FrameSegment.FRAME_MILLIS, 100);
+        FrameRecorder.Recording recording = recorder.finish(2000);
+        assertNotNull(recording);
+        // the finished recording holds its chunk until it's released
+        assertEquals(ReplayBuffer.CHUNK_BYTES, pool.getUsed());
+        assertEquals(FrameSegment.HEADER_BYTES + 100 * 102, bytes(recording).length);
+        assertEquals(0, pool.getUsed());
+        recording.release();
+        assertEquals(0, pool.getUsed());
+
+        recorder.begin("c");
+        recorder.append(frame, 100, 0, 100);
+        recorder.cancel();
+        assertEquals(0, pool.getUsed());
+    }
+
+    @Test
+    public void truncatedSegmentIsRejected() throws IOException
+    {
+        byte[] segment = bytes(record("a", 10, 200));
+        try
+        {
+            FrameSegment.read(ByteBuffer.wrap(segment, 0, segment.length - 1).slice());
+            fail();
+        }
+        catch(IOException expected)
+        {
+        }
+    }
+
+    @Test
+    public void leastRecentlyPlayedIsEvicted() throws Exception
+    {
+        byte[] segment = bytes(record("a", 50, 1000));
+        FrameCache cache = new FrameCache(folder, segment.length * 2 + 1);
+        try
+        {
+            cache.store("a", record("a", 50, 1000)).get();
+            cache.store("b", record("b", 50, 1000)).get();
+            assertNotNull(cache.lookup("a"));
+            cache.store("c", record("c", 50, 1000)).get();
+            assertEquals(2, cache.getFiles());
+            assertNotNull(cache.lookup("a"));
+            assertNull(cache.lookup("b"));
+            assertNotNull(cache.lookup("c"));
+            assertEquals(3, cache.getHits());
+            assertEquals(1, cache.getMisses());
+            assertArrayEquals(segment, Files.readAllBytes(cache.lookup("c")));
+        }
+        finally
+        {
+            cache.shutdown();
+        }
+    }
+
+    @Test
+    public void filesSurviveARestart() throws Exception
+    {
+        FrameRecorder.Recording segment = record("a", 50, 1000);
+        FrameCache cache = new FrameCache(folder, 1024 * 1024);
+        cache.store("a", segment).get();
+        cache.shutdown();
+
+        FrameCache reloaded = new FrameCache(folder, 1024 * 1024);
+        reloaded.load();
+        assertEquals(1, reloaded.getFiles());
+        assertEquals(segment.getLength(), reloaded.getUsed());
+        assertNotNull(reloaded.lookup("a"));
+        reloaded.shutdown();
+    }
+
+    private static FrameRecorder.Recording record(String key, int frames, long duration)
+    {
+        FrameRecorder recorder = new FrameRecorder(new ReplayBuffer.Pool(1024 * 1024), 1000);
+        recorder.begin(key);
+        byte[] frame = new byte[1024];
+        for(int i=0; i<frames; i++)
+        {
+            frame[0] = (byte) i;
+            recorder.append(frame, frameLength(i), i * FrameSegment.FRAME_MILLIS, 100);
+        }
+        FrameRecorder.Recording recording = recorder.finish(duration);
+        assertNotNull(recording);
+        return recording;
+    }
+
+    // writes a recording out, and releases it
+    private static byte[] bytes(FrameRecorder.Recording recording) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        recording.writeTo(out);
+        recording.release();
+        return out.toByteArray();
+    }
+
+    private static int frameLength(int i)
+    {
+        return 100 + i % 200;
+    }
+}
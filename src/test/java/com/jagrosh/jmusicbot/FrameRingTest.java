@@ -0,0 +1,116 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot;
+
+import com.jagrosh.jmusicbot.audio.FrameRing;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class FrameRingTest
+{
+    @Test
+    public void readersJoinWithTheirLead()
+    {
+        FrameRing<Integer> ring = new FrameRing<>(8);
+        for(int i=0; i<5; i++)
+            ring.publish(i);
+        FrameRing<Integer>.Cursor late = ring.cursor(2);
+        FrameRing<Integer>.Cursor live = ring.cursor(0);
+        ring.publish(5);
+        assertEquals(3, (int) late.next());
+        assertEquals(4, (int) late.next());
+        assertEquals(5, (int) late.next());
+        assertNull(late.next());
+        assertEquals(5, (int) live.next());
+        assertNull(live.next());
+    }
+
+    @Test
+    public void lappedReaderSkipsAhead()
+    {
+        FrameRing<Integer> ring = new FrameRing<>(8);
+        FrameRing<Integer>.Cursor cursor = ring.cursor(2);
+        ring.publish(0);
+        assertEquals(0, (int) cursor.next());
+        for(int i=1; i<=20; i++)
+            ring.publish(i);
+        // twenty behind an eight item ring: lands two behind the newest
+        assertEquals(19, (int) cursor.next());
+        assertEquals(20, (int) cursor.next());
+        assertNull(cursor.next());
+        assertEquals(18, cursor.getSkipped());
+    }
+
+    @Test
+    public void readerAWholeRingBehindSkipsAhead()
+    {
+        FrameRing<Integer> ring = new FrameRing<>(8);
+        FrameRing<Integer>.Cursor cursor = ring.cursor(2);
+        ring.publish(0);
+        assertEquals(0, (int) cursor.next());
+        // exactly eight behind: the next slot to read is the next one written
+        for(int i=1; i<=8; i++)
+            ring.publish(i);
+        assertEquals(7, (int) cursor.next());
+        assertEquals(8, (int) cursor.next());
+        assertNull(cursor.next());
+        assertEquals(6, cursor.getSkipped());
+    }
+
+    @Test
+    public void concurrentReaderSeesItemsInOrder() throws InterruptedException
+    {
+        FrameRing<Integer> ring = new FrameRing<>(1024);
+        // a lapped reader lands a few behind the newest, so it always reads the last one
+        FrameRing<Integer>.Cursor cursor = ring.cursor(4);
+        List<Integer> read = new ArrayList<>();
+        Thread reader = new Thread(() ->
+        {
+            while(true)
+            {
+                boolean finished = ring.isFinished();
+                Integer item = cursor.next();
+                if(item != null)
+                    read.add(item);
+                else if(finished)
+                    return;
+            }
+        });
+        reader.start();
+        for(int i=0; i<100_000; i++)
+            ring.publish(i);
+        ring.finish();
+        reader.join();
+        for(int i=1; i<read.size(); i++)
+            assertTrue(read.get(i) > read.get(i-1));
+        assertEquals(99_999, (int) read.get(read.size() - 1));
+        assertEquals(100_000, read.size() + cursor.getSkipped());
+    }
+
+    @Test
+    public void capacityRoundsUpToAPowerOfTwo()
+    {
+        assertEquals(8, new FrameRing<Integer>(5).getCapacity());
+        assertEquals(8, new FrameRing<Integer>(8).getCapacity());
+        assertEquals(2, new FrameRing<Integer>(1).getCapacity());
+    }
+}
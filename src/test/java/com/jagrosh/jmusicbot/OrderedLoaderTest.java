@@ -0,0 +1,246 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot;
+
+import com.jagrosh.jmusicbot.playlist.OrderedLoader;
+import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.player.DefaultAudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.source.AudioSourceManager;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioItem;
+import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
+import com.sedmelluq.discord.lavaplayer.track.AudioReference;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import com.sedmelluq.discord.lavaplayer.track.BaseAudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.playback.LocalAudioTrackExecutor;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class OrderedLoaderTest
+{
+    private DefaultAudioPlayerManager manager;
+    private SlowSource source;
+
+    @Before
+    public void setUp()
+    {
+        manager = new DefaultAudioPlayerManager();
+        source = new SlowSource();
+        manager.registerSourceManager(source);
+    }
+
+    @After
+    public void tearDown()
+    {
+        manager.shutdown();
+    }
+
+    @Test
+    public void handsResultsOverInOrder() throws Exception
+    {
+        // earlier items take longer, so they finish after the ones behind them
+        List<String> items = new ArrayList<>();
+        for(int i=0; i<20; i++)
+            items.add(i % 7 == 3 ? "nothing:" + (20 - i) * 5 : "track:" + (20 - i) * 5);
+        List<String> handed = load(items, 4);
+
+        assertEquals(items.size(), handed.size());
+        for(int i=0; i<items.size(); i++)
+            assertEquals(i + " " + (i % 7 == 3 ? "none" : "track"), handed.get(i));
+        assertTrue(source.most.get() > 1);
+        assertTrue(source.most.get() <= 4);
+    }
+
+    @Test
+    public void loadsOneAtATimeWhenAskedTo() throws Exception
+    {
+        List<String> handed = load(Collections.nCopies(5, "track:5"), 1);
+        assertEquals(5, handed.size());
+        assertEquals(1, source.most.get());
+    }
+
+    @Test
+    public void onlyLoadsAsFarAsRequested() throws Exception
+    {
+        List<String> handed = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch first = new CountDownLatch(3);
+        CountDownLatch more = new CountDownLatch(5);
+        OrderedLoader loader = new OrderedLoader(manager, Collections.nCopies(10, "track:5"), 4, 3);
+        loader.load(index -> record(index, handed, first, more));
+        assertTrue(first.await(10, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(3, source.loads.get());
+        assertFalse(loader.isFinished());
+
+        loader.request(2);
+        assertTrue(more.await(10, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(5, source.loads.get());
+        assertEquals(Arrays.asList("0 track", "1 track", "2 track", "3 track", "4 track"), handed);
+
+        loader.request(100);
+        for(int i=0; i<100 && !loader.isFinished(); i++)
+            Thread.sleep(50);
+        assertTrue(loader.isFinished());
+        assertEquals(10, source.loads.get());
+    }
+
+    private List<String> load(List<String> items, int parallelism) throws InterruptedException
+    {
+        List<String> handed = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(items.size());
+        new OrderedLoader(manager, items, parallelism).load(index -> record(index, handed, done));
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        return handed;
+    }
+
+    // notes down what an item came to, after the ones before it
+    private static AudioLoadResultHandler record(int index, List<String> handed, CountDownLatch... latches)
+    {
+        return new AudioLoadResultHandler()
+        {
+            @Override
+            public void trackLoaded(AudioTrack track)
+            {
+                note(index + " track");
+            }
+
+            @Override
+            public void playlistLoaded(AudioPlaylist playlist)
+            {
+                note(index + " playlist");
+            }
+
+            @Override
+            public void noMatches()
+            {
+                note(index + " none");
+            }
+
+            @Override
+            public void loadFailed(FriendlyException exception)
+            {
+                note(index + " failed");
+            }
+
+            private void note(String outcome)
+            {
+                handed.add(outcome);
+                for(CountDownLatch latch : latches)
+                    latch.countDown();
+            }
+        };
+    }
+
+    // resolves "track:<millis>" to a track and "nothing:<millis>" to no matches,
+    // after waiting that long, and keeps count of its loads and how many ran at once
+    private static class SlowSource implements AudioSourceManager
+    {
+        private final AtomicInteger loads = new AtomicInteger();
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger most = new AtomicInteger();
+
+        @Override
+        public String getSourceName()
+        {
+            return "slow";
+        }
+
+        @Override
+        public AudioItem loadItem(AudioPlayerManager manager, AudioReference reference)
+        {
+            String[] parts = reference.identifier.split(":");
+            loads.incrementAndGet();
+            most.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try
+            {
+                Thread.sleep(Long.parseLong(parts[1]));
+            }
+            catch(InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+            }
+            finally
+            {
+                running.decrementAndGet();
+            }
+            if(parts[0].equals("nothing"))
+                return AudioReference.NO_TRACK;
+            return new SlowTrack(new AudioTrackInfo(parts[1], "author", 1000, parts[1], false, null, null, null), this);
+        }
+
+        @Override
+        public boolean isTrackEncodable(AudioTrack track)
+        {
+            return false;
+        }
+
+        @Override
+        public void encodeTrack(AudioTrack track, DataOutput output)
+        {
+        }
+
+        @Override
+        public AudioTrack decodeTrack(AudioTrackInfo trackInfo, DataInput input)
+        {
+            return null;
+        }
+
+        @Override
+        public void shutdown()
+        {
+        }
+    }
+
+    private static class SlowTrack extends BaseAudioTrack
+    {
+        private final SlowSource source;
+
+        private SlowTrack(AudioTrackInfo info, SlowSource source)
+        {
+            super(info);
+            this.source = source;
+        }
+
+        @Override
+        public void process(LocalAudioTrackExecutor executor)
+        {
+        }
+
+        @Override
+        public AudioSourceManager getSourceManager()
+        {
+            return source;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot;
+
+import com.jagrosh.jmusicbot.audio.PacketTimings;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class PacketTimingsTest
+{
+    @Test
+    public void bucketsIntervals()
+    {
+        PacketTimings timings = new PacketTimings();
+        timings.add(20000);
+        timings.add(20100);
+        timings.add(19000);
+        timings.add(45000);
+        assertEquals(4, timings.getCount());
+        assertEquals(45000, timings.getLongestMicros());
+        // (0 + 100 + 1000 + 25000) / 4
+        assertEquals(6525, timings.getMeanJitterMicros());
+        String[] lines = timings.format().split("\n");
+        assertEquals(PacketTimings.BOUNDS.length + 1, lines.length);
+        assertEquals("<18ms: 0 (0.0%)", lines[0]);
+        assertEquals("19-19.5ms: 1 (25.0%)", lines[2]);
+        assertEquals("19.5-20.5ms: 2 (50.0%)", lines[3]);
+        assertEquals(">=40ms: 1 (25.0%)", lines[8]);
+    }
+
+    @Test
+    public void skipsPauses()
+    {
+        PacketTimings timings = new PacketTimings();
+        long last = timings.record(0);
+        assertEquals(0, timings.getCount());
+        timings.record(last);
+        assertEquals(1, timings.getCount());
+        // a connection that went quiet half a second ago isn't a late packet
+        timings.record(System.nanoTime() - 600_000_000L);
+        assertEquals(1, timings.getCount());
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot;
+
+import com.jagrosh.jmusicbot.audio.PlayerManager;
+import com.jagrosh.jmusicbot.utils.VirtualThreads;
+import com.sedmelluq.discord.lavaplayer.player.DefaultAudioPlayerManager;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+
+/**
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class PlayerManagerTest
+{
+    private PlayerManager manager;
+
+    @Before
+    public void setUp()
+    {
+        manager = new PlayerManager(null);
+    }
+
+    @After
+    public void tearDown()
+    {
+        manager.shutdown();
+    }
+
+    @Test
+    public void virtualThreadsReplaceTheLoaderPoolOnly() throws Exception
+    {
+        assumeTrue(VirtualThreads.isSupported());
+        ThreadPoolExecutor loader = pool(false);
+        ThreadPoolExecutor playback = pool(true);
+        manager.useVirtualThreads();
+
+        assertTrue(isVirtual(loader));
+        // waiting frame buffers would pin their carriers before Java 24
+        assertEquals(VirtualThreads.isPinningFixed(), isVirtual(playback));
+        assertEquals(VirtualThreads.isPinningFixed() ? 2 : 1, manager.getVirtualThreadPools().size());
+    }
+
+    // finds lavaplayer's playback pool, the unbounded one, or its loader pool
+    private ThreadPoolExecutor pool(boolean playback) throws ReflectiveOperationException
+    {
+        for(Field field : DefaultAudioPlayerManager.class.getDeclaredFields())
+        {
+            if(Modifier.isStatic(field.getModifiers()) || !ExecutorService.class.isAssignableFrom(field.getType()))
+                continue;
+            field.setAccessible(true);
+            Object executor = field.get(manager);
+            if(!(executor instanceof ThreadPoolExecutor) || executor instanceof ScheduledThreadPoolExecutor)
+                continue;
+            if((((ThreadPoolExecutor) executor).getMaximumPoolSize() == Integer.MAX_VALUE) == playback)
+                return (ThreadPoolExecutor) executor;
+        }
+        throw new AssertionError("lavaplayer has no " + (playback ? "playback" : "loader") + " pool");
+    }
+
+    private static boolean isVirtual(ThreadPoolExecutor executor) throws ReflectiveOperationException
+    {
+        Thread thread = executor.getThreadFactory().newThread(() -> {});
+        return (boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot;
+
+import com.jagrosh.jmusicbot.playlist.PlaylistIndex;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class PlaylistIndexTest
+{
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        file = Files.createTempFile("playlist", ".txt");
+    }
+
+    @After
+    public void tearDown() throws IOException
+    {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void skipsBlankLinesAndComments() throws IOException
+    {
+        PlaylistIndex index = index("# my playlist\n\n  https://youtu.be/a  \r\n// a comment\r/\n\t\nytsearch:b\n#not shuffle\nc");
+        assertEquals(Arrays.asList("https://youtu.be/a", "/", "ytsearch:b", "c"), new ArrayList<>(index));
+        assertFalse(index.isShuffle());
+    }
+
+    @Test
+    public void noticesTheShuffleDirective() throws IOException
+    {
+        assertTrue(index("a\n  # Shuf fle \nb").isShuffle());
+        assertTrue(index("a\n//SHUFFLE").isShuffle());
+        assertFalse(index("a\n/ /shuffle").isShuffle());
+        assertEquals(2, index("a\n/ /shuffle").size());
+    }
+
+    @Test
+    public void readsLongAndUnicodeEntries() throws IOException
+    {
+        String longEntry = String.join("", Collections.nCopies(5000, "long"));
+        PlaylistIndex index = index("ytsearch:caf\u00e9 \u266b\n" + longEntry + "\nlast");
+        assertEquals("ytsearch:caf\u00e9 \u266b", index.get(0));
+        assertEquals(longEntry, index.get(1));
+        assertEquals("last", index.get(2));
+        assertEquals(longEntry, index.get(1));
+    }
+
+    @Test
+    public void indexesBigFiles() throws IOException
+    {
+        StringBuilder text = new StringBuilder();
+        for(int i=0; i<100_000; i++)
+            text.append("https://youtu.be/").append(i).append('\n');
+        PlaylistIndex index = index(text.toString());
+        assertEquals(100_000, index.size());
+        assertEquals("https://youtu.be/0", index.get(0));
+        assertEquals("https://youtu.be/54321", index.get(54321));
+        assertEquals("https://youtu.be/99999", index.get(99999));
+    }
+
+    @Test
+    public void shufflesIntoEveryOrderEvenly() throws IOException
+    {
+        PlaylistIndex index = index("a\nb\nc");
+        Map<String, Integer> counts = new HashMap<>();
+        int rounds = 60_000;
+        for(int i=0; i<rounds; i++)
+        {
+            index.shuffle();
+            counts.merge(String.join("", index), 1, Integer::sum);
+        }
+        assertEquals(6, counts.size());
+        for(int count : counts.values())
+            assertEquals(rounds / 6.0, count, rounds / 6.0 * 0.05);
+    }
+
+    @Test
+    public void stopsReadingAChangedFile() throws IOException
+    {
+        PlaylistIndex index = index("first\nsecond");
+        assertFalse(index.isChanged());
+        Files.write(file, "something else entirely".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+        assertTrue(index.isChanged());
+        assertEquals("", index.get(1));
+    }
+
+    private PlaylistIndex index(String text) throws IOException
+    {
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+        return PlaylistIndex.read(file);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot;
+
+import com.jagrosh.jmusicbot.audio.QualityGovernor;
+import com.jagrosh.jmusicbot.audio.QualityGovernor.Level;
+import com.sedmelluq.discord.lavaplayer.player.AudioConfiguration;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class QualityGovernorTest
+{
+    @Test
+    public void lowersQualityUnderSustainedLoad()
+    {
+        AudioConfiguration configuration = new AudioConfiguration();
+        QualityGovernor governor = new QualityGovernor(configuration, 0.85);
+        // a single spike isn't enough
+        assertEquals(Level.HIGH, governor.update(0.95, 0));
+        assertEquals(Level.HIGH, governor.update(0.10, 0));
+        assertEquals(Level.HIGH, governor.update(0.95, 0));
+        assertEquals(Level.MEDIUM, governor.update(0.95, 0));
+        assertEquals(Level.MEDIUM.getOpusQuality(), configuration.getOpusEncodingQuality());
+        assertEquals(Level.MEDIUM.getResamplingQuality(), configuration.getResamplingQuality());
+        // starved threads count as overloaded too
+        governor.update(0.10, 500);
+        assertEquals(Level.LOW, governor.update(0.10, 500));
+        governor.update(0.95, 0);
+        assertEquals(Level.LOW, governor.update(0.95, 0));
+        assertEquals(2, governor.getDowngrades());
+    }
+
+    @Test
+    public void restoresQualityOnceCalm()
+    {
+        AudioConfiguration configuration = new AudioConfiguration();
+        QualityGovernor governor = new QualityGovernor(configuration, 0.85);
+        governor.update(0.95, 0);
+        governor.update(0.95, 0);
+        // between the limits neither counts
+        for(int i=0; i<10; i++)
+            assertEquals(Level.MEDIUM, governor.update(0.75, 0));
+        for(int i=0; i<5; i++)
+            assertEquals(Level.MEDIUM, governor.update(0.20, 0));
+        assertEquals(Level.HIGH, governor.update(0.20, 0));
+        assertEquals(Level.HIGH.getOpusQuality(), configuration.getOpusEncodingQuality());
+        assertEquals(1, governor.getUpgrades());
+    }
+}
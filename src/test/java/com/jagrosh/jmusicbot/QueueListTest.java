@@ -0,0 +1,399 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot;
+
+import com.jagrosh.jmusicbot.queue.FairQueue;
+import com.jagrosh.jmusicbot.queue.LinearQueue;
+import com.jagrosh.jmusicbot.queue.QueueList;
+import com.jagrosh.jmusicbot.queue.QueueSnapshot;
+import com.jagrosh.jmusicbot.queue.Queueable;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class QueueListTest
+{
+    @Test
+    public void matchesArrayList()
+    {
+        Random random = new Random(3);
+        QueueList<Q> tree = new QueueList<>();
+        List<Q> array = new ArrayList<>();
+        for(int op=0; op<20000; op++)
+        {
+            int roll = random.nextInt(10);
+            if(roll < 5 || array.isEmpty())
+            {
+                int index = random.nextInt(array.size() + 1);
+                Q q = new Q(random.nextInt(5));
+                tree.add(index, q);
+                array.add(index, q);
+            }
+            else if(roll < 8)
+            {
+                int index = random.nextInt(array.size());
+                assertSame(array.remove(index), tree.remove(index));
+            }
+            else if(roll < 9)
+            {
+                int index = random.nextInt(array.size());
+                Q q = new Q(random.nextInt(5));
+                assertSame(array.set(index, q), tree.set(index, q));
+            }
+            else
+            {
+                int from = random.nextInt(array.size());
+                int to = Math.min(array.size(), from + random.nextInt(4));
+                array.subList(from, to).clear();
+                tree.subList(from, to).clear();
+            }
+            assertEquals(array.size(), tree.size());
+            if(op % 100 == 0)
+            {
+                assertEquals(array, tree);
+                assertEquals(array, tree.snapshot());
+            }
+        }
+        assertEquals(array, tree);
+        assertEquals(array, tree.snapshot());
+    }
+
+    @Test
+    public void totalsMatchScan()
+    {
+        Random random = new Random(5);
+        FairQueue<Q> queue = new FairQueue<>(null);
+        for(int op=0; op<5000; op++)
+        {
+            int roll = random.nextInt(10);
+            if(roll < 5 || queue.isEmpty())
+                queue.add(new Q(random.nextInt(6), random.nextInt(20) == 0 ? Long.MAX_VALUE : random.nextInt(600000)));
+            else if(roll < 7)
+                queue.remove(random.nextInt(queue.size()));
+            else if(roll < 8)
+                queue.moveItem(random.nextInt(queue.size()), random.nextInt(queue.size()));
+            else if(roll < 9)
+                queue.skip(random.nextInt(Math.min(queue.size(), 3) + 1));
+            else
+                queue.removeAll(random.nextInt(6));
+
+            long duration = 0;
+            int live = 0;
+            for(Q q : queue.getList())
+                if(q.getDuration() == Long.MAX_VALUE)
+                    live++;
+                else
+                    duration += q.getDuration();
+            assertEquals(duration, queue.getDuration());
+            assertEquals(live, queue.getLiveCount());
+            long identifier = random.nextInt(6);
+            assertEquals(queue.getList().stream().filter(q -> q.getIdentifier() == identifier).count(), queue.count(identifier));
+            assertEquals(queue.getList().stream().filter(q -> q.getIdentifier() == identifier && q.getDuration() != Long.MAX_VALUE)
+                    .mapToLong(Q::getDuration).sum(), queue.getDuration(identifier));
+        }
+        queue.clear();
+        assertEquals(0, queue.getDuration());
+        assertEquals(0, queue.count(1));
+    }
+
+    @Test
+    public void duplicateKeysMatchScan()
+    {
+        Random random = new Random(17);
+        FairQueue<Q> queue = new FairQueue<>(null);
+        for(int op=0; op<5000; op++)
+        {
+            int roll = random.nextInt(10);
+            if(roll < 3 || queue.isEmpty())
+                queue.add(new Q(random.nextInt(6), 0, "k" + random.nextInt(40)));
+            else if(roll < 5)
+            {
+                Q q = new Q(random.nextInt(6), 0, "k" + random.nextInt(40));
+                boolean queued = queue.isQueued(q.getDuplicateKey());
+                assertEquals(queued, queue.addIfAbsent(q) < 0);
+            }
+            else if(roll < 6)
+            {
+                List<Q> batch = new ArrayList<>();
+                for(int i=random.nextInt(8); i>0; i--)
+                    batch.add(new Q(random.nextInt(6), 0, "k" + random.nextInt(40)));
+                Set<String> seen = new HashSet<>();
+                boolean[] duplicate = new boolean[batch.size()];
+                for(int i=0; i<batch.size(); i++)
+                    duplicate[i] = queue.isQueued(batch.get(i).getDuplicateKey()) || !seen.add(batch.get(i).getDuplicateKey());
+                int[] positions = queue.addAllAbsent(batch);
+                for(int i=0; i<batch.size(); i++)
+                    assertEquals(duplicate[i], positions[i] < 0);
+            }
+            else if(roll < 7)
+                queue.remove(random.nextInt(queue.size()));
+            else if(roll < 8)
+                queue.moveItem(random.nextInt(queue.size()), random.nextInt(queue.size()));
+            else if(roll < 9)
+                queue.shuffle(random.nextInt(6), random);
+            else
+                queue.removeAll(random.nextInt(6));
+
+            for(int k=0; k<40; k++)
+            {
+                String key = "k" + k;
+                assertEquals(queue.getList().stream().anyMatch(q -> q.getDuplicateKey().equals(key)), queue.isQueued(key));
+            }
+        }
+        queue.clear();
+        assertFalse(queue.isQueued("k1"));
+    }
+
+    @Test
+    public void timeUntilMatchesPrefixSums()
+    {
+        Random random = new Random(9);
+        FairQueue<Q> queue = new FairQueue<>(null);
+        for(int op=0; op<3000; op++)
+        {
+            if(random.nextInt(3) > 0 || queue.isEmpty())
+                queue.add(new Q(random.nextInt(5), random.nextInt(50) == 0 ? Long.MAX_VALUE : random.nextInt(600000)));
+            else
+                queue.remove(random.nextInt(queue.size()));
+
+            int index = random.nextInt(queue.size() + 1);
+            long expected = 0;
+            for(Q q : queue.getList().subList(0, index))
+                expected = expected == Long.MAX_VALUE || q.getDuration() == Long.MAX_VALUE ? Long.MAX_VALUE : expected + q.getDuration();
+            assertEquals(expected, queue.timeUntil(index));
+
+            long identifier = random.nextInt(6);
+            int first = -1;
+            for(int i=0; i<queue.size() && first<0; i++)
+                if(queue.get(i).getIdentifier() == identifier)
+                    first = i;
+            assertEquals(first, queue.firstIndexOf(identifier));
+        }
+    }
+
+    @Test
+    public void shuffleIsUniform()
+    {
+        Random random = new Random(11);
+        FairQueue<Q> queue = new FairQueue<>(null);
+        List<Q> mine = new ArrayList<>();
+        for(int i=0; i<4; i++)
+        {
+            Q q = new Q(1);
+            mine.add(q);
+            queue.add(q);
+            queue.add(new Q(2));
+        }
+        Map<String, Integer> counts = new HashMap<>();
+        int trials = 48000;
+        for(int t=0; t<trials; t++)
+        {
+            assertEquals(4, queue.shuffle(1, random));
+            StringBuilder order = new StringBuilder();
+            for(int i=0; i<queue.size(); i++)
+            {
+                // the shuffle must leave everyone else's entries where they were
+                assertEquals(i % 2 == 0 ? 1 : 2, queue.get(i).getIdentifier());
+                if(i % 2 == 0)
+                    order.append(mine.indexOf(queue.get(i)));
+            }
+            counts.merge(order.toString(), 1, Integer::sum);
+        }
+        assertEquals(24, counts.size());
+        double expected = trials / 24.0;
+        double chiSquared = 0;
+        for(int count : counts.values())
+            chiSquared += (count - expected) * (count - expected) / expected;
+        // 23 degrees of freedom; 49.7 is the 0.1% critical value
+        assertTrue("chi-squared " + chiSquared, chiSquared < 49.7);
+    }
+
+    @Test
+    public void requesterOperationsOnlyTouchTheirEntries()
+    {
+        FairQueue<Q> queue = new FairQueue<>(null);
+        List<Q> others = new ArrayList<>();
+        for(int i=0; i<20000; i++)
+        {
+            Q q = new Q(2 + i % 50, 1000);
+            others.add(q);
+            queue.add(q);
+        }
+        for(int i=0; i<10; i++)
+            queue.add(new Q(1, 1000));
+        int before = others.stream().mapToInt(q -> q.touches).sum();
+        assertEquals(10, queue.count(1));
+        assertEquals(10, queue.shuffle(1));
+        assertEquals(10, queue.removeAll(1));
+        assertEquals(0, queue.count(1));
+        assertEquals(20000, queue.size());
+        assertEquals(before, others.stream().mapToInt(q -> q.touches).sum());
+    }
+
+    @Test
+    public void snapshotsDontChange()
+    {
+        Random random = new Random(13);
+        FairQueue<Q> queue = new FairQueue<>(null);
+        List<List<Q>> expected = new ArrayList<>();
+        List<QueueSnapshot<Q>> snapshots = new ArrayList<>();
+        for(int op=0; op<2000; op++)
+        {
+            int roll = random.nextInt(10);
+            if(roll < 6 || queue.isEmpty())
+                queue.add(new Q(random.nextInt(5), random.nextInt(1000)));
+            else if(roll < 8)
+                queue.pull();
+            else if(roll < 9)
+                queue.shuffle(random.nextInt(5), random);
+            else
+                queue.moveItem(random.nextInt(queue.size()), random.nextInt(queue.size()));
+            if(op % 50 == 0)
+            {
+                QueueSnapshot<Q> snapshot = queue.snapshot();
+                if(!snapshots.isEmpty())
+                    assertTrue(snapshot.getVersion() > snapshots.get(snapshots.size() - 1).getVersion());
+                snapshots.add(snapshot);
+                expected.add(new ArrayList<>(snapshot));
+            }
+        }
+        for(int i=0; i<snapshots.size(); i++)
+        {
+            assertEquals(expected.get(i), snapshots.get(i));
+            assertEquals(expected.get(i).stream().mapToLong(Q::getDuration).sum(), snapshots.get(i).getDuration());
+        }
+    }
+
+    @Test
+    public void snapshotsCanBeReadWhileTheQueueChanges() throws Exception
+    {
+        FairQueue<Q> queue = new FairQueue<>(null);
+        AtomicBoolean done = new AtomicBoolean();
+        Thread writer = new Thread(() ->
+        {
+            Random random = new Random(17);
+            for(int op=0; op<200000; op++)
+                if(random.nextBoolean() || queue.isEmpty())
+                    queue.add(new Q(random.nextInt(8), 1));
+                else
+                    queue.pull();
+            done.set(true);
+        });
+        writer.start();
+        while(!done.get())
+        {
+            QueueSnapshot<Q> snapshot = queue.snapshot();
+            int count = 0;
+            for(Q q : snapshot)
+                count++;
+            assertEquals(snapshot.size(), count);
+            assertEquals(snapshot.size(), snapshot.getDuration());
+        }
+        writer.join();
+    }
+
+    @Test
+    public void iteratorRemove()
+    {
+        QueueList<Q> tree = new QueueList<>();
+        for(int i=0; i<100; i++)
+            tree.add(new Q(i % 3));
+        for(Iterator<Q> it = tree.iterator(); it.hasNext();)
+            if(it.next().getIdentifier() == 1)
+                it.remove();
+        assertEquals(67, tree.size());
+        for(Q q : tree)
+            assertTrue(q.getIdentifier() != 1);
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void setToAnotherRequesterInvalidatesIterators()
+    {
+        QueueList<Q> tree = new QueueList<>();
+        for(int i=0; i<10; i++)
+            tree.add(new Q(i % 3));
+        Iterator<Q> it = tree.iterator();
+        it.next();
+        tree.set(5, new Q(7));
+        it.next();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void queueListIsReadOnly()
+    {
+        LinearQueue<Q> queue = new LinearQueue<>(null);
+        queue.add(new Q(1));
+        queue.getList().remove(0);
+    }
+
+    private static class Q implements Queueable
+    {
+        private final long identifier;
+        private final long duration;
+        private final String key;
+        private int touches;
+
+        private Q(long identifier)
+        {
+            this(identifier, 0);
+        }
+
+        private Q(long identifier, long duration)
+        {
+            this(identifier, duration, null);
+        }
+
+        private Q(long identifier, long duration, String key)
+        {
+            this.identifier = identifier;
+            this.duration = duration;
+            this.key = key;
+        }
+
+        @Override
+        public long getIdentifier()
+        {
+            touches++;
+            return identifier;
+        }
+
+        @Override
+        public long getDuration()
+        {
+            touches++;
+            return duration;
+        }
+
+        @Override
+        public String getDuplicateKey()
+        {
+            return key;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot;
+
+import com.jagrosh.jmusicbot.audio.FrameSegment;
+import com.jagrosh.jmusicbot.audio.ReplayBuffer;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class ReplayBufferTest
+{
+    private final static int FRAME_BYTES = 1000;
+
+    @Test
+    public void holdsAWholeShortTrack()
+    {
+        ReplayBuffer buffer = new ReplayBuffer(new ReplayBuffer.Pool(1024 * 1024), 1024 * 1024);
+        send(buffer, 0, 500);
+        assertTrue(buffer.holdsWhole(500 * FrameSegment.FRAME_MILLIS));
+        byte[] data = new byte[FRAME_BYTES];
+        long generation = buffer.getGeneration();
+        for(int i=0; i<500; i++)
+        {
+            assertEquals(FRAME_BYTES, buffer.read(generation, i, data));
+            assertEquals((byte) i, data[0]);
+        }
+        assertEquals(-1, buffer.read(generation, 500, data));
+    }
+
+    @Test
+    public void keepsTheNewestWindowUnderItsLimit()
+    {
+        ReplayBuffer.Pool pool = new ReplayBuffer.Pool(1024 * 1024);
+        ReplayBuffer buffer = new ReplayBuffer(pool, 2 * ReplayBuffer.CHUNK_BYTES);
+        send(buffer, 0, 1000);
+        assertEquals(2 * ReplayBuffer.CHUNK_BYTES, pool.getUsed());
+        assertFalse(buffer.holdsWhole(1000 * FrameSegment.FRAME_MILLIS));
+        assertFalse(buffer.contains(0));
+        // a chunk holds 65 of these frames, and the oldest of the two was reused
+        assertTrue(buffer.contains(999 * FrameSegment.FRAME_MILLIS));
+        assertTrue(buffer.contains(950 * FrameSegment.FRAME_MILLIS));
+        assertFalse(buffer.contains(900 * FrameSegment.FRAME_MILLIS));
+        byte[] data = new byte[FRAME_BYTES];
+        assertEquals(FRAME_BYTES, buffer.read(buffer.getGeneration(), 950, data));
+        assertEquals((byte) 950, data[0]);
+        buffer.release();
+        assertEquals(0, pool.getUsed());
+    }
+
+    @Test
+    public void sharedPoolLimitsEveryBuffer()
+    {
+        ReplayBuffer.Pool pool = new ReplayBuffer.Pool(3 * ReplayBuffer.CHUNK_BYTES);
+        ReplayBuffer first = new ReplayBuffer(pool, 1024 * 1024);
+        ReplayBuffer second = new ReplayBuffer(pool, 1024 * 1024);
+        send(first, 0, 1000);
+        send(second, 0, 1000);
+        assertEquals(3 * ReplayBuffer.CHUNK_BYTES, pool.getUsed());
+        assertTrue(first.contains(999 * FrameSegment.FRAME_MILLIS));
+        assertFalse(second.contains(999 * FrameSegment.FRAME_MILLIS));
+        // once the first lets go, the second gets the memory
+        first.release();
+        send(second, 1000, 1100);
+        assertTrue(second.contains(1099 * FrameSegment.FRAME_MILLIS));
+    }
+
+    @Test
+    public void replayedFramesDontRestartTheWindow()
+    {
+        ReplayBuffer buffer = new ReplayBuffer(new ReplayBuffer.Pool(1024 * 1024), 1024 * 1024);
+        send(buffer, 0, 300);
+        long generation = buffer.getGeneration();
+        // seeked back to 100, then carried on past the end from the source
+        send(buffer, 100, 400);
+        assertEquals(generation, buffer.getGeneration());
+        assertTrue(buffer.holdsWhole(400 * FrameSegment.FRAME_MILLIS));
+        // a seek forward past the window starts a new one
+        send(buffer, 1000, 1010);
+        assertNotEquals(generation, buffer.getGeneration());
+        assertFalse(buffer.contains(0));
+        assertEquals(-1, buffer.read(generation, 1005, new byte[FRAME_BYTES]));
+    }
+
+    private static void send(ReplayBuffer buffer, int from, int to)
+    {
+        byte[] frame = new byte[FRAME_BYTES];
+        for(int i=from; i<to; i++)
+        {
+            frame[0] = (byte) i;
+            buffer.append(frame, FRAME_BYTES, i * FrameSegment.FRAME_MILLIS, 100);
+        }
+    }
+}
@@ -0,0 +1,329 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot;
+
+import com.jagrosh.jmusicbot.audio.ResolutionCache;
+import com.jagrosh.jmusicbot.audio.ResolutionStore;
+import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.player.DefaultAudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.source.AudioSourceManager;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioItem;
+import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
+import com.sedmelluq.discord.lavaplayer.track.AudioReference;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import com.sedmelluq.discord.lavaplayer.track.BaseAudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.BasicAudioPlaylist;
+import com.sedmelluq.discord.lavaplayer.track.playback.LocalAudioTrackExecutor;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class ResolutionCacheTest
+{
+    private DefaultAudioPlayerManager manager;
+    private ResolutionCache cache;
+    private FakeSource source;
+
+    @Before
+    public void setUp()
+    {
+        manager = new DefaultAudioPlayerManager();
+        cache = new ResolutionCache(manager, 2, 2, null);
+        source = new FakeSource();
+        manager.registerSourceManager(cache);
+        manager.registerSourceManager(source);
+    }
+
+    @After
+    public void tearDown()
+    {
+        manager.shutdown();
+    }
+
+    @Test
+    public void hitsHandOutFreshTracks() throws Exception
+    {
+        Result first = load("track:a");
+        Result second = load("track:a");
+        assertEquals(1, source.loads);
+        assertEquals("a", second.tracks.get(0).getIdentifier());
+        assertNotSame(first.tracks.get(0), second.tracks.get(0));
+        assertEquals(1, cache.getHits(false));
+        assertEquals(1, cache.getMisses(false));
+        assertEquals(0.5, cache.getHitRate(false), 0.0001);
+    }
+
+    @Test
+    public void keepsPlaylists() throws Exception
+    {
+        load("playlist:a,b,c");
+        Result hit = load("playlist:a,b,c");
+        assertEquals(1, source.loads);
+        assertEquals("playlist", hit.playlist.getName());
+        assertEquals(3, hit.tracks.size());
+        assertEquals("b", hit.playlist.getSelectedTrack().getIdentifier());
+        assertSame(hit.tracks.get(1), hit.playlist.getSelectedTrack());
+    }
+
+    @Test
+    public void remembersMissesAndCommonFailures() throws Exception
+    {
+        assertTrue(load("nothing").noMatches);
+        assertTrue(load("nothing").noMatches);
+        assertEquals("gone", load("common").failure.getMessage());
+        assertEquals("gone", load("common").failure.getMessage());
+        assertEquals(2, source.loads);
+        assertEquals(2, cache.getNegativeHits(false));
+    }
+
+    @Test
+    public void retriesWorseFailures() throws Exception
+    {
+        load("suspicious");
+        assertNotNull(load("suspicious").failure);
+        assertEquals(2, source.loads);
+        assertEquals(0, cache.getHits(false));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() throws Exception
+    {
+        load("track:a");
+        load("track:b");
+        load("track:a");
+        load("track:c");
+        assertEquals(2, cache.getSize(false));
+        load("track:a");
+        assertEquals(3, source.loads);
+        load("track:b");
+        assertEquals(4, source.loads);
+    }
+
+    @Test
+    public void normalizesSearches()
+    {
+        assertEquals("ytsearch:never gonna give you up", ResolutionCache.keyOf("  YTSearch: Never  gonna\tgive you UP "));
+        assertEquals("scsearch:a b", ResolutionCache.keyOf("scsearch:a   b"));
+        assertEquals("https://youtu.be/AbC", ResolutionCache.keyOf("https://youtu.be/AbC"));
+        assertTrue(ResolutionCache.isSearch("ytmsearch:x"));
+        assertFalse(ResolutionCache.isSearch("x ytsearch:x"));
+    }
+
+    @Test
+    public void sharesResultsBetweenEquivalentSearches() throws Exception
+    {
+        load("ytsearch:Playlist:a,b");
+        Result hit = load("ytsearch:  playlist:A,B ");
+        assertEquals(1, source.loads);
+        assertEquals(2, hit.tracks.size());
+        assertEquals(1, cache.getHits(true));
+        assertEquals(0, cache.getHits(false));
+    }
+
+    @Test
+    public void keepsSearchesApartFromLinks() throws Exception
+    {
+        load("track:a");
+        load("track:b");
+        load("ytsearch:playlist:a,b");
+        load("ytsearch:playlist:c,d");
+        load("ytsearch:playlist:e,f");
+        assertEquals(2, cache.getSize(false));
+        assertEquals(2, cache.getSize(true));
+        load("track:a");
+        load("track:b");
+        assertEquals(5, source.loads);
+    }
+
+    @Test
+    public void remembersLinksAcrossRestarts() throws Exception
+    {
+        Path file = Files.createTempFile("resolutions", ".log");
+        try
+        {
+            ResolutionStore disk = new ResolutionStore(file, 1024 * 1024);
+            disk.load();
+            restart(disk);
+            load("playlist:a,b");
+            load("ytsearch:track:c");
+            disk.shutdown();
+
+            // a new run, with nothing in memory
+            disk = new ResolutionStore(file, 1024 * 1024);
+            disk.load();
+            assertEquals(1, disk.getSize());
+            restart(disk);
+            Result hit = load("playlist:a,b");
+            assertEquals(0, source.loads);
+            assertEquals("b", hit.playlist.getSelectedTrack().getIdentifier());
+            assertEquals(1, cache.getDiskHits());
+            disk.shutdown();
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // starts over with a new manager, source and cache
+    private void restart(ResolutionStore disk)
+    {
+        manager.shutdown();
+        manager = new DefaultAudioPlayerManager();
+        cache = new ResolutionCache(manager, 2, 2, disk);
+        source = new FakeSource();
+        manager.registerSourceManager(cache);
+        manager.registerSourceManager(source);
+    }
+
+    private Result load(String identifier) throws Exception
+    {
+        Result result = new Result();
+        manager.loadItemOrdered(this, identifier, cache.recording(identifier, result)).get();
+        return result;
+    }
+
+    private static class Result implements AudioLoadResultHandler
+    {
+        private final List<AudioTrack> tracks = new ArrayList<>();
+        private AudioPlaylist playlist;
+        private boolean noMatches;
+        private FriendlyException failure;
+
+        @Override
+        public void trackLoaded(AudioTrack track)
+        {
+            tracks.add(track);
+        }
+
+        @Override
+        public void playlistLoaded(AudioPlaylist playlist)
+        {
+            this.playlist = playlist;
+            tracks.addAll(playlist.getTracks());
+        }
+
+        @Override
+        public void noMatches()
+        {
+            noMatches = true;
+        }
+
+        @Override
+        public void loadFailed(FriendlyException exception)
+        {
+            failure = exception;
+        }
+    }
+
+    // resolves "track:<id>" and "playlist:<id>,<id>,..." with the second track
+    // selected, with or without a search prefix
+    private static class FakeSource implements AudioSourceManager
+    {
+        private int loads;
+
+        @Override
+        public String getSourceName()
+        {
+            return "fake";
+        }
+
+        @Override
+        public AudioItem loadItem(AudioPlayerManager manager, AudioReference reference)
+        {
+            loads++;
+            String identifier = reference.identifier.trim().toLowerCase().replaceFirst("^ytsearch: *", "");
+            if(identifier.startsWith("track:"))
+                return track(identifier.substring(6));
+            if(identifier.startsWith("playlist:"))
+            {
+                List<AudioTrack> tracks = new ArrayList<>();
+                for(String id : Arrays.asList(identifier.substring(9).split(",")))
+                    tracks.add(track(id));
+                return new BasicAudioPlaylist("playlist", tracks, tracks.get(1), false);
+            }
+            if(identifier.equals("common"))
+                throw new FriendlyException("gone", FriendlyException.Severity.COMMON, null);
+            if(identifier.equals("suspicious"))
+                throw new FriendlyException("blocked", FriendlyException.Severity.SUSPICIOUS, null);
+            return AudioReference.NO_TRACK;
+        }
+
+        private AudioTrack track(String id)
+        {
+            return new FakeTrack(new AudioTrackInfo(id, "author", 1000, id, false, null, null, null), this);
+        }
+
+        @Override
+        public boolean isTrackEncodable(AudioTrack track)
+        {
+            return true;
+        }
+
+        @Override
+        public void encodeTrack(AudioTrack track, DataOutput output)
+        {
+        }
+
+        @Override
+        public AudioTrack decodeTrack(AudioTrackInfo trackInfo, DataInput input)
+        {
+            return new FakeTrack(trackInfo, this);
+        }
+
+        @Override
+        public void shutdown()
+        {
+        }
+    }
+
+    private static class FakeTrack extends BaseAudioTrack
+    {
+        private final FakeSource source;
+
+        private FakeTrack(AudioTrackInfo info, FakeSource source)
+        {
+            super(info);
+            this.source = source;
+        }
+
+        @Override
+        public void process(LocalAudioTrackExecutor executor)
+        {
+        }
+
+        @Override
+        public AudioSourceManager getSourceManager()
+        {
+            return source;
+        }
+    }
+}
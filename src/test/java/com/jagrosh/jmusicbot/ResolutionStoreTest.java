@@ -0,0 +1,140 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot;
+
+import com.jagrosh.jmusicbot.audio.ResolutionStore;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class ResolutionStoreTest
+{
+    private Path folder;
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        folder = Files.createTempDirectory("resolutionstore");
+        file = folder.resolve("resolutions.log");
+    }
+
+    @After
+    public void tearDown() throws IOException
+    {
+        try(Stream<Path> paths = Files.walk(folder))
+        {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void survivesARestart() throws Exception
+    {
+        ResolutionStore store = open(1024 * 1024);
+        store.put("a", bytes("first")).get();
+        store.put("b", bytes("second")).get();
+        store.put("a", bytes("third")).get();
+        store.put("c", bytes("fourth")).get();
+        store.remove("c").get();
+        assertArrayEquals(bytes("third"), store.get("a"));
+        store.shutdown();
+
+        ResolutionStore reopened = open(1024 * 1024);
+        assertEquals(2, reopened.getSize());
+        assertArrayEquals(bytes("third"), reopened.get("a"));
+        assertArrayEquals(bytes("second"), reopened.get("b"));
+        assertNull(reopened.get("c"));
+        assertEquals(store.getUsed(), reopened.getUsed());
+        reopened.shutdown();
+    }
+
+    @Test
+    public void dropsARecordCutShort() throws Exception
+    {
+        ResolutionStore store = open(1024 * 1024);
+        store.put("a", bytes("first")).get();
+        store.put("b", bytes("second")).get();
+        store.shutdown();
+        long size = Files.size(file);
+        // the header and half the key of a record that never finished
+        Files.write(file, new byte[]{0, 0, 0, 8, 0, 0, 0, 100, 0, 0, 0, 0, 0, 0, 0, 0, 'h', 'a'}, StandardOpenOption.APPEND);
+
+        ResolutionStore reopened = open(1024 * 1024);
+        assertEquals(size, Files.size(file));
+        assertArrayEquals(bytes("second"), reopened.get("b"));
+        reopened.put("c", bytes("third")).get();
+        reopened.shutdown();
+        assertArrayEquals(bytes("third"), open(1024 * 1024).get("c"));
+    }
+
+    @Test
+    public void compactsToTheNewestRecordsUnderTheLimit() throws Exception
+    {
+        // each record is 16 header bytes, a 3 byte key and 81 bytes of value
+        ResolutionStore store = open(10_000);
+        byte[] value = new byte[81];
+        for(int i=0; i<150; i++)
+            store.put(String.format("%03d", i), value).get();
+        assertTrue(store.getCompactions() > 0);
+        assertTrue(store.getUsed() <= store.getCapacity());
+        assertEquals(store.getUsed(), store.getFileSize());
+        assertNotNull(store.get("149"));
+        assertNull(store.get("000"));
+        int size = store.getSize();
+        store.shutdown();
+
+        ResolutionStore reopened = open(10_000);
+        assertEquals(size, reopened.getSize());
+        assertNotNull(reopened.get("149"));
+        assertEquals(Files.size(file), reopened.getFileSize());
+        reopened.shutdown();
+    }
+
+    @Test
+    public void skipsValuesTooBigToKeep() throws Exception
+    {
+        ResolutionStore store = open(100);
+        store.put("a", new byte[200]).get();
+        assertNull(store.get("a"));
+        assertEquals(0, store.getFileSize());
+        store.shutdown();
+    }
+
+    private ResolutionStore open(long capacity)
+    {
+        ResolutionStore store = new ResolutionStore(file, capacity);
+        store.load();
+        return store;
+    }
+
+    private static byte[] bytes(String value)
+    {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
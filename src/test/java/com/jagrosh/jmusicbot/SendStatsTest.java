@@ -0,0 +1,105 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot;
+
+import com.jagrosh.jmusicbot.audio.SendStats;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class SendStatsTest
+{
+    @Test
+    public void countsUnderrunsAndGaps()
+    {
+        SendStats stats = new SendStats();
+        record(stats, true, true, 10);
+        record(stats, false, true, 3);
+        record(stats, true, true, 5);
+        record(stats, false, true, 7);
+        record(stats, true, true, 5);
+        SendStats.Summary summary = stats.getSummary();
+        assertEquals(20, summary.getFrames());
+        assertEquals(10, summary.getUnderruns());
+        assertEquals(7, summary.getLongestGap());
+        assertEquals(140, summary.getLongestGapMillis());
+        assertEquals(10.0 / 30, summary.getUnderrunRatio(), 1e-9);
+        assertEquals(29, sum(summary.getIntervals()));
+    }
+
+    @Test
+    public void idleTimeIsNotAnUnderrun()
+    {
+        SendStats stats = new SendStats();
+        record(stats, true, true, 5);
+        record(stats, false, false, 50);
+        record(stats, true, true, 5);
+        SendStats.Summary summary = stats.getSummary();
+        assertEquals(10, summary.getFrames());
+        assertEquals(0, summary.getUnderruns());
+        assertEquals(0, summary.getLongestGap());
+        // the first frame after the pause has nothing to be measured against
+        assertEquals(8, sum(summary.getIntervals()));
+    }
+
+    @Test
+    public void summariesAddUp()
+    {
+        SendStats a = new SendStats(), b = new SendStats();
+        record(a, true, true, 4);
+        record(a, false, true, 2);
+        record(b, false, true, 5);
+        SendStats.Summary total = new SendStats.Summary();
+        total.add(a.getSummary());
+        total.add(b.getSummary());
+        assertEquals(4, total.getFrames());
+        assertEquals(7, total.getUnderruns());
+        assertEquals(5, total.getLongestGap());
+    }
+
+    @Test
+    public void transitionsAreAveragedByKind()
+    {
+        SendStats stats = new SendStats();
+        stats.recordTransition(TimeUnit.MILLISECONDS.toNanos(20), true);
+        stats.recordTransition(TimeUnit.MILLISECONDS.toNanos(40), true);
+        stats.recordTransition(TimeUnit.MILLISECONDS.toNanos(900), false);
+        SendStats.Summary summary = stats.getSummary();
+        assertEquals(2, summary.getTransitions(true));
+        assertEquals(30, summary.getAverageTransitionMillis(true));
+        assertEquals(1, summary.getTransitions(false));
+        assertEquals(900, summary.getAverageTransitionMillis(false));
+        assertEquals(-1, new SendStats().getSummary().getAverageTransitionMillis(true));
+    }
+
+    private static void record(SendStats stats, boolean provided, boolean playing, int times)
+    {
+        for(int i=0; i<times; i++)
+            stats.record(provided, playing);
+    }
+
+    private static long sum(long[] counts)
+    {
+        long sum = 0;
+        for(long count : counts)
+            sum += count;
+        return sum;
+    }
+}
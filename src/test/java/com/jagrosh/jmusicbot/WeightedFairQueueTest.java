@@ -0,0 +1,192 @@
+/*
+ * Copyright 2026 Alex Yau (TheMajoris)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jagrosh.jmusicbot;
+
+import com.jagrosh.jmusicbot.queue.LinearQueue;
+import com.jagrosh.jmusicbot.queue.Queueable;
+import com.jagrosh.jmusicbot.queue.WeightedFairQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Alex Yau (TheMajoris)
+ */
+public class WeightedFairQueueTest
+{
+    private final static long MINUTE = 60 * 1000;
+
+    @Test
+    public void longMixesDontStarveShortSongs()
+    {
+        WeightedFairQueue<Q> queue = new WeightedFairQueue<>(null);
+        for(int i=0; i<3; i++)
+            queue.add(new Q(1, 180 * MINUTE));
+        for(int i=0; i<30; i++)
+            queue.add(new Q(2, 3 * MINUTE));
+        // the first mix goes first, then all of the short songs fit in the
+        // three hours before the second mix is due
+        assertEquals(1, queue.get(0).getIdentifier());
+        for(int i=1; i<=30; i++)
+            assertEquals(2, queue.get(i).getIdentifier());
+        assertEquals(1, queue.get(31).getIdentifier());
+    }
+
+    @Test
+    public void equalLengthsTakeTurns()
+    {
+        WeightedFairQueue<Q> queue = new WeightedFairQueue<>(null);
+        for(int i=0; i<5; i++)
+            queue.add(new Q(1, 4 * MINUTE));
+        for(int i=0; i<5; i++)
+            queue.add(new Q(2, 4 * MINUTE));
+        for(int i=0; i<10; i++)
+            assertEquals(i % 2 + 1, queue.get(i).getIdentifier());
+    }
+
+    @Test
+    public void newcomersStartFromThePlayingEntry()
+    {
+        WeightedFairQueue<Q> queue = new WeightedFairQueue<>(null);
+        for(int i=0; i<10; i++)
+            queue.add(new Q(1, 5 * MINUTE));
+        for(int i=0; i<4; i++)
+            queue.pull();
+        // requester 2 plays next, but gets no credit for the time before they
+        // showed up, so after that the two of them take turns
+        assertEquals(0, queue.add(new Q(2, 5 * MINUTE)));
+        assertEquals(2, queue.add(new Q(2, 5 * MINUTE)));
+        assertEquals(4, queue.add(new Q(2, 5 * MINUTE)));
+    }
+
+    @Test
+    public void matchesLinearScan()
+    {
+        Random random = new Random(21);
+        WeightedFairQueue<Q> queue = new WeightedFairQueue<>(null);
+        ReferenceQueue reference = new ReferenceQueue();
+        for(int op=0; op<4000; op++)
+        {
+            if(random.nextInt(3) > 0 || reference.items.isEmpty())
+            {
+                Q q = new Q(random.nextInt(6), random.nextInt(30) == 0 ? Long.MAX_VALUE : random.nextInt(10) * MINUTE);
+                assertEquals(reference.add(q), queue.add(q));
+            }
+            else
+                assertSame(reference.pull(), queue.pull());
+            assertEquals(reference.items, queue.getList());
+        }
+    }
+
+    @Test
+    public void switchingKeepsTheOrder()
+    {
+        LinearQueue<Q> linear = new LinearQueue<>(null);
+        for(int i=0; i<20; i++)
+            linear.add(new Q(i % 3, MINUTE));
+        List<Q> before = new ArrayList<>(linear.getList());
+        WeightedFairQueue<Q> queue = new WeightedFairQueue<>(linear);
+        assertEquals(before, queue.getList());
+    }
+
+    @Test
+    public void switchingPlacesNewEntriesFairly()
+    {
+        LinearQueue<Q> linear = new LinearQueue<>(null);
+        for(int i=0; i<3; i++)
+            linear.add(new Q(1, 4 * MINUTE));
+        linear.add(new Q(2, 4 * MINUTE));
+        WeightedFairQueue<Q> queue = new WeightedFairQueue<>(linear);
+        queue.add(new Q(2, 4 * MINUTE));
+        List<Long> order = new ArrayList<>();
+        for(Q q : queue.getList())
+            order.add(q.getIdentifier());
+        assertEquals(Arrays.asList(1L, 2L, 1L, 2L, 1L), order);
+    }
+
+    /**
+     * The same scheduling, found by scanning the whole list.
+     */
+    private static class ReferenceQueue
+    {
+        private final List<Q> items = new ArrayList<>();
+        private final List<Long> keys = new ArrayList<>();
+        private final Map<Long, Long> played = new HashMap<>();
+        private long clock = 0;
+
+        private int add(Q q)
+        {
+            long start = played.getOrDefault(q.getIdentifier(), Long.MIN_VALUE);
+            for(int i=items.size()-1; i>=0; i--)
+                if(items.get(i).getIdentifier() == q.getIdentifier())
+                {
+                    start = keys.get(i) + charge(items.get(i));
+                    break;
+                }
+            start = Math.max(start, clock);
+            int index = 0;
+            while(index < keys.size() && keys.get(index) <= start)
+                index++;
+            items.add(index, q);
+            keys.add(index, start);
+            return index;
+        }
+
+        private Q pull()
+        {
+            long start = keys.remove(0);
+            Q q = items.remove(0);
+            clock = Math.max(clock, start);
+            played.put(q.getIdentifier(), start + charge(q));
+            return q;
+        }
+
+        private long charge(Q q)
+        {
+            return q.getDuration() == Long.MAX_VALUE ? 60 * MINUTE : q.getDuration();
+        }
+    }
+
+    private static class Q implements Queueable
+    {
+        private final long identifier;
+        private final long duration;
+
+        private Q(long identifier, long duration)
+        {
+            this.identifier = identifier;
+            this.duration = duration;
+        }
+
+        @Override
+        public long getIdentifier()
+        {
+            return identifier;
+        }
+
+        @Override
+        public long getDuration()
+        {
+            return duration;
+        }
+    }
+}